@@ -0,0 +1,140 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Precomputed item parameters for adaptive quizzes (Rasch model).
+// Each auto-gradable question gets a difficulty estimated from past answers in
+// the course; items are kept sorted by difficulty so the most informative unused
+// item for an ability estimate is found by binary search.
+final class AdaptiveItemIndex {
+    private static final double MIN_THETA = -4.0;
+    private static final double MAX_THETA = 4.0;
+
+    private final Question[] items;
+    private final double[] difficulties;
+    private final Map<String, Integer> positions;
+
+    private AdaptiveItemIndex(Question[] items, double[] difficulties) {
+        this.items = items;
+        this.difficulties = difficulties;
+        this.positions = new HashMap<>();
+        for (int i = 0; i < items.length; i++) {
+            positions.put(items[i].getQuestionId(), i);
+        }
+    }
+
+    // Builds the index for a question pool using answers from the given quizzes
+    static AdaptiveItemIndex build(List<Question> pool, Collection<Quiz> history) {
+        Map<String, int[]> stats = new HashMap<>(); // questionId -> {seen, correct}
+        for (Question question : pool) {
+            if (isAdaptive(question)) {
+                stats.put(question.getQuestionId(), new int[2]);
+            }
+        }
+        for (Quiz quiz : history) {
+            Map<String, Question> quizQuestions = new HashMap<>();
+            for (Question question : quiz.getQuestions()) {
+                if (stats.containsKey(question.getQuestionId())) {
+                    quizQuestions.put(question.getQuestionId(), question);
+                }
+            }
+            if (quizQuestions.isEmpty()) continue;
+            for (QuizSnapshot.AttemptView attempt : quiz.snapshot().attempts()) {
+                for (Map.Entry<String, String> answer : attempt.answers().entrySet()) {
+                    Question question = quizQuestions.get(answer.getKey());
+                    if (question == null) continue;
+                    int[] counts = stats.get(question.getQuestionId());
+                    counts[0]++;
+                    if (question.checkAnswer(answer.getValue())) counts[1]++;
+                }
+            }
+        }
+
+        List<Question> adaptive = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (Question question : pool) {
+            int[] counts = stats.get(question.getQuestionId());
+            if (counts == null) continue;
+            // Smoothed proportion correct, so unseen items start at difficulty 0
+            double p = (counts[1] + 1.0) / (counts[0] + 2.0);
+            adaptive.add(question);
+            values.add(Math.log((1 - p) / p));
+        }
+
+        Integer[] order = new Integer[adaptive.size()];
+        for (int i = 0; i < order.length; i++) order[i] = i;
+        Arrays.sort(order, Comparator.comparingDouble(values::get));
+        Question[] items = new Question[order.length];
+        double[] difficulties = new double[order.length];
+        for (int i = 0; i < order.length; i++) {
+            items[i] = adaptive.get(order[i]);
+            difficulties[i] = values.get(order[i]);
+        }
+        return new AdaptiveItemIndex(items, difficulties);
+    }
+
+    // Subjective answers cannot be scored automatically, so they are left out
+    static boolean isAdaptive(Question question) {
+        return question instanceof MCQQuestion || question instanceof TrueFalseQuestion;
+    }
+
+    public int size() {
+        return items.length;
+    }
+
+    public Session newSession() {
+        return new Session();
+    }
+
+    // Per-attempt state: the running ability estimate and the items already given
+    final class Session {
+        private final BitSet used = new BitSet(items.length);
+        private final List<double[]> responses = new ArrayList<>(); // {difficulty, 1 if correct}
+        private double theta = 0.0;
+
+        public double getTheta() {
+            return theta;
+        }
+
+        public int getAnsweredCount() {
+            return responses.size();
+        }
+
+        // The unused item whose difficulty is closest to the current ability estimate
+        public Question nextQuestion() {
+            int insertion = Arrays.binarySearch(difficulties, theta);
+            if (insertion < 0) insertion = -insertion - 1;
+            int left = used.previousClearBit(insertion - 1);
+            int right = used.nextClearBit(insertion);
+            if (left >= 0 && (right >= items.length || theta - difficulties[left] <= difficulties[right] - theta)) {
+                return items[left];
+            }
+            return right < items.length ? items[right] : null;
+        }
+
+        public void record(Question question, boolean correct) {
+            Integer position = positions.get(question.getQuestionId());
+            if (position == null || used.get(position)) return;
+            used.set(position);
+            responses.add(new double[] {difficulties[position], correct ? 1 : 0});
+            updateTheta();
+        }
+
+        // A few Newton steps on the posterior with a standard normal prior,
+        // which stays finite when every answer so far is right (or wrong)
+        private void updateTheta() {
+            for (int iteration = 0; iteration < 5; iteration++) {
+                double gradient = -theta;
+                double information = 1.0;
+                for (double[] response : responses) {
+                    double p = 1.0 / (1.0 + Math.exp(response[0] - theta));
+                    gradient += response[1] - p;
+                    information += p * (1 - p);
+                }
+                double step = gradient / information;
+                theta = Math.max(MIN_THETA, Math.min(MAX_THETA, theta + step));
+                if (Math.abs(step) < 1e-3) break;
+            }
+        }
+    }
+}
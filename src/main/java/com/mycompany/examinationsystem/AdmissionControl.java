@@ -0,0 +1,195 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Admission control for login and quiz-start bursts. Every user has a token
+// bucket for logins and one for quiz starts, so retrying without limit only
+// locks out that user. Starts also pass a global gate: at most startSlots run
+// at once, up to startQueue more wait in arrival order (a fair semaphore), and
+// anyone beyond that is turned away at once instead of piling up behind the
+// others. Sizes come from -Dexam.startSlots, -Dexam.startQueue and
+// -Dexam.startWaitMillis.
+final class AdmissionControl {
+    private static final int LOGIN_BURST = 5;
+    private static final long LOGIN_REFILL_MILLIS = 12_000;   // one more attempt every 12 s
+    private static final int START_BURST = 3;
+    private static final long START_REFILL_MILLIS = 10_000;
+    private static final int MAX_TRACKED_USERS = 100_000;
+
+    enum Decision {
+        ADMITTED(""),
+        RATE_LIMITED("Too many attempts. Please wait a moment and try again!"),
+        QUEUE_FULL("The system is busy starting other quizzes. Please try again shortly!"),
+        TIMED_OUT("The system is busy starting other quizzes. Please try again shortly!");
+
+        private final String message;
+
+        Decision(String message) {
+            this.message = message;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+
+    record Metrics(long admitted, long rateLimited, long queueFull, long timedOut, long loginsRejected,
+                   int queueDepth, int maxQueueDepth, long meanWaitMicros, long maxWaitMicros) {
+        public long rejected() {
+            return rateLimited + queueFull + timedOut;
+        }
+    }
+
+    private final RateLimiter logins;
+    private final RateLimiter starts;
+    private final Semaphore startSlots;
+    private final int startQueue;
+    private final long startWaitMillis;
+
+    private final AtomicInteger queueDepth;
+    private final AtomicInteger maxQueueDepth;
+    private final LongAdder admitted;
+    private final LongAdder rateLimited;
+    private final LongAdder queueFull;
+    private final LongAdder timedOut;
+    private final LongAdder loginsRejected;
+    private final LongAdder totalWaitNanos;
+    private final AtomicLong maxWaitNanos;
+
+    public AdmissionControl() {
+        this(Integer.getInteger("exam.startSlots", 16), Integer.getInteger("exam.startQueue", 1000),
+                Long.getLong("exam.startWaitMillis", 5000));
+    }
+
+    public AdmissionControl(int startSlots, int startQueue, long startWaitMillis) {
+        this.logins = new RateLimiter(LOGIN_BURST, LOGIN_REFILL_MILLIS);
+        this.starts = new RateLimiter(START_BURST, START_REFILL_MILLIS);
+        this.startSlots = new Semaphore(startSlots, true);
+        this.startQueue = startQueue;
+        this.startWaitMillis = startWaitMillis;
+        this.queueDepth = new AtomicInteger();
+        this.maxQueueDepth = new AtomicInteger();
+        this.admitted = new LongAdder();
+        this.rateLimited = new LongAdder();
+        this.queueFull = new LongAdder();
+        this.timedOut = new LongAdder();
+        this.loginsRejected = new LongAdder();
+        this.totalWaitNanos = new LongAdder();
+        this.maxWaitNanos = new AtomicLong();
+    }
+
+    // Takes a login attempt from the user id's bucket, whether or not the id exists
+    public boolean admitLogin(String userId) {
+        if (logins.tryAcquire(userId)) return true;
+        loginsRejected.increment();
+        return false;
+    }
+
+    // Waits for a quiz-start slot. After ADMITTED the caller must call finishStart().
+    public Decision admitStart(String userId) {
+        if (!starts.tryAcquire(userId)) {
+            rateLimited.increment();
+            return Decision.RATE_LIMITED;
+        }
+
+        int depth = queueDepth.incrementAndGet();
+        if (depth > startQueue) {
+            queueDepth.decrementAndGet();
+            queueFull.increment();
+            return Decision.QUEUE_FULL;
+        }
+        maxQueueDepth.accumulateAndGet(depth, Math::max);
+
+        long waitStart = System.nanoTime();
+        boolean acquired;
+        try {
+            acquired = startSlots.tryAcquire(startWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            acquired = false;
+        } finally {
+            queueDepth.decrementAndGet();
+        }
+        long waited = System.nanoTime() - waitStart;
+        totalWaitNanos.add(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+
+        if (!acquired) {
+            timedOut.increment();
+            return Decision.TIMED_OUT;
+        }
+        admitted.increment();
+        return Decision.ADMITTED;
+    }
+
+    public void finishStart() {
+        startSlots.release();
+    }
+
+    public Metrics getMetrics() {
+        long count = admitted.sum() + timedOut.sum();
+        return new Metrics(admitted.sum(), rateLimited.sum(), queueFull.sum(), timedOut.sum(),
+                loginsRejected.sum(), queueDepth.get(), maxQueueDepth.get(),
+                count == 0 ? 0 : totalWaitNanos.sum() / count / 1000, maxWaitNanos.get() / 1000);
+    }
+
+    // Token buckets keyed by user id, refilled lazily when a user next asks
+    private static final class RateLimiter {
+        private final int burst;
+        private final long refillNanos;
+        private final Map<String, Bucket> buckets;
+        private final AtomicLong lastEviction;
+
+        RateLimiter(int burst, long refillMillis) {
+            this.burst = burst;
+            this.refillNanos = TimeUnit.MILLISECONDS.toNanos(refillMillis);
+            this.buckets = new ConcurrentHashMap<>();
+            this.lastEviction = new AtomicLong(System.nanoTime() - refillNanos);
+        }
+
+        boolean tryAcquire(String key) {
+            long now = System.nanoTime();
+            long last = lastEviction.get();
+            // Forget users whose bucket has refilled; they start full anyway. The scan is
+            // O(users), so one caller runs it at most once per refill interval.
+            if (buckets.size() > MAX_TRACKED_USERS && now - last >= refillNanos
+                    && lastEviction.compareAndSet(last, now)) {
+                buckets.values().removeIf(bucket -> bucket.isFull(now));
+            }
+            return buckets.computeIfAbsent(key, k -> new Bucket(burst, refillNanos, now)).tryTake(now);
+        }
+    }
+
+    private static final class Bucket {
+        private final int capacity;
+        private final long refillNanos;
+        private double tokens;
+        private long lastRefill;
+
+        Bucket(int capacity, long refillNanos, long now) {
+            this.capacity = capacity;
+            this.refillNanos = refillNanos;
+            this.tokens = capacity;
+            this.lastRefill = now;
+        }
+
+        synchronized boolean tryTake(long now) {
+            refill(now);
+            if (tokens < 1) return false;
+            tokens--;
+            return true;
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= capacity;
+        }
+
+        private void refill(long now) {
+            tokens = Math.min(capacity, tokens + (double) (now - lastRefill) / refillNanos);
+            lastRefill = now;
+        }
+    }
+}
@@ -0,0 +1,198 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Predicate;
+
+// Autosaves in-progress quiz attempts to an append-only log so they can be
+// resumed after a crash. Records are queued in memory and group-committed to
+// disk every FLUSH_INTERVAL_MILLIS with a single write and sync, so answering a
+// question never waits for the disk.
+//
+// Log records (tab separated):
+//   S  courseId quizId studentId                       attempt started
+//   A  courseId quizId studentId elapsedMillis qId ans  answer recorded
+//   D  courseId quizId studentId                       attempt submitted
+class AttemptCheckpointer {
+    private static final long FLUSH_INTERVAL_MILLIS = 2000;
+
+    // Unfinished attempt recovered from the log
+    record Checkpoint(String courseId, String quizId, String studentId, long elapsedMillis,
+                      Map<String, String> answers) {
+    }
+
+    private final File logFile;
+    private final Queue<String> pending;
+    private final Map<String, Checkpoint> recovered;
+    private final ScheduledExecutorService flusher;
+
+    public AttemptCheckpointer(String fileName) {
+        this.logFile = new File(fileName);
+        this.pending = new ConcurrentLinkedQueue<>();
+        this.recovered = new ConcurrentHashMap<>();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "attempt-checkpointer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL_MILLIS, FLUSH_INTERVAL_MILLIS,
+                TimeUnit.MILLISECONDS);
+    }
+
+    public void started(String courseId, String quizId, String studentId) {
+        pending.add(record("S", courseId, quizId, studentId));
+    }
+
+    public void answered(String courseId, String quizId, String studentId, long elapsedMillis,
+                         String questionId, String answer) {
+        pending.add(record("A", courseId, quizId, studentId, String.valueOf(elapsedMillis), questionId, answer));
+    }
+
+    public void completed(String courseId, String quizId, String studentId) {
+        recovered.remove(key(courseId, quizId, studentId));
+        pending.add(record("D", courseId, quizId, studentId));
+    }
+
+    public Checkpoint getCheckpoint(String courseId, String quizId, String studentId) {
+        return recovered.get(key(courseId, quizId, studentId));
+    }
+
+    // Unfinished attempts of one quiz recovered from the log
+    public List<Checkpoint> getCheckpoints(String courseId, String quizId) {
+        List<Checkpoint> found = new ArrayList<>();
+        for (Checkpoint checkpoint : recovered.values()) {
+            if (checkpoint.courseId().equals(courseId) && checkpoint.quizId().equals(quizId)) {
+                found.add(checkpoint);
+            }
+        }
+        return found;
+    }
+
+    // Completes the recovered attempts that fail keep, e.g. ones whose quiz no longer
+    // exists or was never saved, so they are not offered again; returns how many
+    public int purge(Predicate<Checkpoint> keep) {
+        int purged = 0;
+        for (Checkpoint checkpoint : recovered.values()) {
+            if (!keep.test(checkpoint)) {
+                completed(checkpoint.courseId(), checkpoint.quizId(), checkpoint.studentId());
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    public int getRecoveredCount() {
+        return recovered.size();
+    }
+
+    // Writes all queued records in one group commit
+    public synchronized void flush() {
+        if (pending.isEmpty()) return;
+        StringBuilder batch = new StringBuilder();
+        String line;
+        while ((line = pending.poll()) != null) {
+            batch.append(line).append('\n');
+        }
+        try (FileOutputStream out = new FileOutputStream(logFile, true)) {
+            out.write(batch.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            Terminal.get().println("Error writing attempt checkpoint!");
+        }
+    }
+
+    // Reads the log, keeps attempts that were never submitted and compacts the file
+    public synchronized void recover() {
+        if (!logFile.exists()) return;
+
+        Map<String, Long> elapsed = new LinkedHashMap<>();
+        Map<String, Map<String, String>> answers = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new FileInputStream(logFile), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split("\t", -1);
+                if (fields.length < 4) continue; // torn write at crash time
+                String key = key(unescape(fields[1]), unescape(fields[2]), unescape(fields[3]));
+                switch (fields[0]) {
+                    case "S" -> {
+                        elapsed.put(key, 0L);
+                        answers.put(key, new HashMap<>());
+                    }
+                    case "A" -> {
+                        if (fields.length < 7 || !elapsed.containsKey(key) || !fields[4].matches("\\d+")) continue;
+                        elapsed.put(key, Long.parseLong(fields[4]));
+                        answers.get(key).put(unescape(fields[5]), unescape(fields[6]));
+                    }
+                    case "D" -> {
+                        elapsed.remove(key);
+                        answers.remove(key);
+                    }
+                    default -> { }
+                }
+            }
+        } catch (IOException e) {
+            Terminal.get().println("Error reading attempt checkpoints!");
+        }
+
+        StringBuilder compacted = new StringBuilder();
+        for (Map.Entry<String, Long> entry : elapsed.entrySet()) {
+            String[] ids = entry.getKey().split("\t", -1);
+            Checkpoint checkpoint = new Checkpoint(unescape(ids[0]), unescape(ids[1]), unescape(ids[2]),
+                    entry.getValue(), answers.get(entry.getKey()));
+            recovered.put(entry.getKey(), checkpoint);
+
+            compacted.append(record("S", checkpoint.courseId(), checkpoint.quizId(), checkpoint.studentId()))
+                    .append('\n');
+            for (Map.Entry<String, String> answer : checkpoint.answers().entrySet()) {
+                compacted.append(record("A", checkpoint.courseId(), checkpoint.quizId(), checkpoint.studentId(),
+                        String.valueOf(checkpoint.elapsedMillis()), answer.getKey(), answer.getValue()))
+                        .append('\n');
+            }
+        }
+        try (FileOutputStream out = new FileOutputStream(logFile)) {
+            out.write(compacted.toString().getBytes(StandardCharsets.UTF_8));
+            out.getFD().sync();
+        } catch (IOException e) {
+            Terminal.get().println("Error compacting attempt checkpoints!");
+        }
+    }
+
+    public void close() {
+        flusher.shutdown();
+        flush();
+    }
+
+    private static String key(String courseId, String quizId, String studentId) {
+        return escape(courseId) + "\t" + escape(quizId) + "\t" + escape(studentId);
+    }
+
+    private static String record(String type, String... fields) {
+        StringBuilder sb = new StringBuilder(type);
+        for (String field : fields) {
+            sb.append('\t').append(escape(field));
+        }
+        return sb.toString();
+    }
+
+    private static String escape(String value) {
+        return value.replace("\\", "\\\\").replace("\t", "\\t").replace("\n", "\\n");
+    }
+
+    private static String unescape(String value) {
+        if (value.indexOf('\\') < 0) return value;
+        StringBuilder sb = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '\\' && i + 1 < value.length()) {
+                char next = value.charAt(++i);
+                sb.append(next == 't' ? '\t' : next == 'n' ? '\n' : next);
+            } else {
+                sb.append(c);
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,249 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Server side of the offline-first attempt protocol. A client logs in, opens an
+// attempt and receives the whole quiz in one package (questions in the attempt's
+// order, answers already on the server, the sequence number last applied and the
+// deadline). Answers are then kept on the client and sent in batches of
+// sequence-numbered changes; the server applies each change to the QuizAttempt
+// at most once, so a batch resent after a lost reply is harmless. Submitting is
+// the final batch. A session ends SYNC_GRACE_MILLIS after an attempt it opened
+// is submitted (so a resent submit is still acknowledged) or once the quiz closes. Runs in process; a network front end would forward the same
+// calls.
+final class AttemptSyncServer implements AttemptTransport {
+    // Batched changes answered just before the deadline may arrive a little after it
+    static final long SYNC_GRACE_MILLIS = 60_000;
+
+    private final ExaminationSystem system;
+    private final Map<String, Session> sessions;            // token -> session
+    private final Map<String, Set<String>> attemptSessions; // attempt key -> tokens that opened it
+    private final Map<String, Long> startTimes;             // attempt key -> start, epoch millis
+    private final Map<String, Long> submitTimes;            // attempt key -> submitted, epoch millis
+    private final AtomicLong lastExpiry;
+
+    private record Session(String studentId, long issuedMillis) {
+    }
+
+    public AttemptSyncServer(ExaminationSystem system) {
+        this.system = system;
+        this.sessions = new ConcurrentHashMap<>();
+        this.attemptSessions = new ConcurrentHashMap<>();
+        this.startTimes = new ConcurrentHashMap<>();
+        this.submitTimes = new ConcurrentHashMap<>();
+        this.lastExpiry = new AtomicLong(QuizSchedule.currentTimeMillis());
+    }
+
+    @Override
+    public String login(String userId, String password) {
+        if (!system.getAdmission().admitLogin(userId)) {
+            throw new IllegalArgumentException("Too many login attempts. Please wait a moment and try again!");
+        }
+        User user = system.authenticate(userId, password);
+        return user instanceof Student student ? sessionFor(student) : null;
+    }
+
+    // For the console front end, whose user has already logged in
+    public String sessionFor(Student student) {
+        String session = UUID.randomUUID().toString();
+        sessions.put(session, new Session(student.getUserId(), QuizSchedule.currentTimeMillis()));
+        return session;
+    }
+
+    @Override
+    public QuizPackage open(String session, String courseId, String quizId) {
+        Student student = studentFor(session);
+        if (student == null) {
+            throw new IllegalArgumentException("Session expired, please log in again!");
+        }
+        Course course = system.getShards().getCourse(courseId);
+        if (course == null || !course.isEnrolled(student)) {
+            throw new IllegalArgumentException("Invalid course selection!");
+        }
+        Quiz quiz = course.getQuiz(quizId);
+        if (quiz == null) {
+            throw new IllegalArgumentException("Invalid quiz selection!");
+        }
+        if (quiz.isAdaptive()) {
+            throw new IllegalArgumentException("Adaptive quizzes need a live connection!");
+        }
+        String studentId = student.getUserId();
+        AttemptCheckpointer.Checkpoint checkpoint = system.getCheckpointer().getCheckpoint(courseId, quizId, studentId);
+        if (!quiz.isActive() && !canContinue(quiz, studentId, checkpoint)) {
+            throw new IllegalArgumentException("This quiz is not currently active!");
+        }
+        QuizAttempt attempt = openAttempt(quiz, student, checkpoint);
+
+        long elapsedBefore = checkpoint != null ? checkpoint.elapsedMillis() : 0;
+        String key = key(courseId, quizId, studentId);
+        long started = startTimes.computeIfAbsent(key, k -> QuizSchedule.currentTimeMillis() - elapsedBefore);
+        attemptSessions.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(session);
+
+        List<PackagedQuestion> questions = new ArrayList<>();
+        for (Question question : attempt.getQuestionOrder()) {
+            int[] optionOrder = question instanceof MCQQuestion mcq ? attempt.getOptionOrder(mcq) : null;
+            questions.add(new PackagedQuestion(question, optionOrder));
+        }
+        return new QuizPackage(courseId, quizId, questions, Map.copyOf(attempt.answers),
+                attempt.getSyncedSequence(), started + quiz.getDuration().toMillis());
+    }
+
+    @Override
+    public SyncAck sync(SyncBatch batch) {
+        long last = lastExpiry.get();
+        if (QuizSchedule.currentTimeMillis() - last >= SYNC_GRACE_MILLIS
+                && lastExpiry.compareAndSet(last, QuizSchedule.currentTimeMillis())) {
+            expireSessions();
+        }
+
+        Student student = studentFor(batch.session());
+        Course course = system.getShards().getCourse(batch.courseId());
+        Quiz quiz = course != null ? course.getQuiz(batch.quizId()) : null;
+        QuizAttempt attempt = student != null && quiz != null ? quiz.getAttempt(student.getUserId()) : null;
+        if (attempt == null) {
+            // The client opens the attempt again, which reports any real problem
+            return new SyncAck(Status.UNKNOWN_SESSION, 0, 0);
+        }
+        if (attempt.isGraded()) {
+            return new SyncAck(Status.SUBMITTED, attempt.getSyncedSequence(), attempt.getScore());
+        }
+
+        String key = key(batch.courseId(), batch.quizId(), student.getUserId());
+        long now = QuizSchedule.currentTimeMillis();
+        long started = startTimes.getOrDefault(key, now);
+        long deadline = started + quiz.getDuration().toMillis();
+        if (now > deadline + SYNC_GRACE_MILLIS) {
+            submit(attempt, key);
+            return new SyncAck(Status.TIME_UP, attempt.getSyncedSequence(), attempt.getScore());
+        }
+
+        // The grace is only for delivery: a change counts if it was answered before the
+        // deadline. A time in the future is taken as the time the change arrived.
+        List<AnswerChange> changes = new ArrayList<>(batch.changes());
+        changes.sort(Comparator.comparingLong(AnswerChange::sequence));
+        for (AnswerChange change : changes) {
+            long answered = Math.min(change.answeredMillis(), now);
+            if (answered > deadline) continue;
+            if (attempt.applyChange(change.sequence(), change.questionId(), change.answer())) {
+                system.getCheckpointer().answered(batch.courseId(), batch.quizId(), student.getUserId(),
+                        Math.max(0, answered - started), change.questionId(), change.answer());
+            }
+        }
+
+        // Past the deadline the first batch to arrive closes the attempt
+        if (batch.submit() || now > deadline) {
+            submit(attempt, key);
+            return new SyncAck(batch.submit() ? Status.SUBMITTED : Status.TIME_UP,
+                    attempt.getSyncedSequence(), attempt.getScore());
+        }
+        return new SyncAck(Status.ACCEPTED, attempt.getSyncedSequence(), 0);
+    }
+
+    // After the quiz window, an attempt started in time may still be reopened until
+    // its own time limit, and an interrupted one resumed if it has time left
+    boolean canContinue(Quiz quiz, String studentId, AttemptCheckpointer.Checkpoint checkpoint) {
+        QuizAttempt attempt = quiz.getAttempt(studentId);
+        Long started = startTimes.get(key(quiz.getCourseId(), quiz.getQuizId(), studentId));
+        if (attempt != null && !attempt.isGraded() && started != null) {
+            return QuizSchedule.currentTimeMillis() < started + quiz.getDuration().toMillis();
+        }
+        return quiz.canResume(checkpoint);
+    }
+
+    // Time since the student opened this attempt through the server, 0 if not known
+    long elapsedMillis(Quiz quiz, String studentId) {
+        Long started = startTimes.get(key(quiz.getCourseId(), quiz.getQuizId(), studentId));
+        return started != null ? Math.max(0, QuizSchedule.currentTimeMillis() - started) : 0;
+    }
+
+    private QuizAttempt openAttempt(Quiz quiz, Student student, AttemptCheckpointer.Checkpoint checkpoint) {
+        QuizAttempt attempt = quiz.getAttempt(student.getUserId());
+        if (attempt != null && attempt.isGraded()) {
+            throw new IllegalArgumentException("You have already attempted this quiz!");
+        }
+        if (attempt == null) {
+            if (checkpoint != null) {
+                attempt = quiz.resumeAttempt(student);
+                checkpoint.answers().forEach(attempt::recordAnswer);
+            } else {
+                attempt = startAttempt(quiz, student);
+            }
+            if (attempt == null) {
+                throw new IllegalArgumentException("You have already attempted this quiz!");
+            }
+        }
+        return attempt;
+    }
+
+    // Only new attempts pass admission control; reopening or resuming one never
+    // costs the student a start
+    private QuizAttempt startAttempt(Quiz quiz, Student student) {
+        AdmissionControl admission = system.getAdmission();
+        AdmissionControl.Decision decision = admission.admitStart(student.getUserId());
+        if (decision != AdmissionControl.Decision.ADMITTED) {
+            throw new IllegalArgumentException(decision.getMessage());
+        }
+        try {
+            QuizAttempt attempt = quiz.attemptQuiz(student);
+            if (attempt != null) {
+                system.getCheckpointer().started(quiz.getCourseId(), quiz.getQuizId(), student.getUserId());
+            }
+            return attempt;
+        } finally {
+            admission.finishStart();
+        }
+    }
+
+    private void submit(QuizAttempt attempt, String key) {
+        Quiz quiz = attempt.getQuiz();
+        attempt.gradeQuiz();
+        system.getCheckpointer().completed(quiz.getCourseId(), quiz.getQuizId(), attempt.getStudent().getUserId());
+        startTimes.remove(key);
+        submitTimes.put(key, QuizSchedule.currentTimeMillis());
+    }
+
+    // Ends the sessions that opened an attempt and forgets its times
+    private void endAttempt(String key) {
+        startTimes.remove(key);
+        submitTimes.remove(key);
+        Set<String> tokens = attemptSessions.remove(key);
+        if (tokens != null) {
+            sessions.keySet().removeAll(tokens);
+        }
+    }
+
+    // Ends the sessions of attempts submitted over SYNC_GRACE_MILLIS ago or whose quiz
+    // has closed or is gone, and sessions that have not opened an attempt within
+    // SYNC_GRACE_MILLIS of logging in. Runs from sync() about once a minute.
+    void expireSessions() {
+        long cutoff = QuizSchedule.currentTimeMillis() - SYNC_GRACE_MILLIS;
+        Set<String> keys = new HashSet<>(startTimes.keySet());
+        keys.addAll(attemptSessions.keySet());
+        keys.addAll(submitTimes.keySet());
+        for (String key : keys) {
+            Long submitted = submitTimes.get(key);
+            String[] ids = key.split("\t", 3);
+            Course course = system.getShards().getCourse(ids[0]);
+            Quiz quiz = course != null ? course.getQuiz(ids[1]) : null;
+            if (quiz == null || quiz.isClosed() || (submitted != null && submitted < cutoff)) {
+                endAttempt(key);
+            }
+        }
+
+        Set<String> opened = new HashSet<>();
+        attemptSessions.values().forEach(opened::addAll);
+        sessions.entrySet().removeIf(session ->
+                !opened.contains(session.getKey()) && session.getValue().issuedMillis() < cutoff);
+    }
+
+    private Student studentFor(String session) {
+        Session current = session != null ? sessions.get(session) : null;
+        return current != null && system.getUser(current.studentId()) instanceof Student student ? student : null;
+    }
+
+    private static String key(String courseId, String quizId, String studentId) {
+        return courseId + "\t" + quizId + "\t" + studentId;
+    }
+}
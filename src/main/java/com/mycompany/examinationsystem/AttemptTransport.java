@@ -0,0 +1,36 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Calls and messages of the offline-first attempt protocol (see AttemptSyncServer).
+// Implementations throw UncheckedIOException when the server cannot be reached.
+interface AttemptTransport {
+    // Session token, or null for invalid credentials
+    String login(String userId, String password);
+
+    // Throws IllegalArgumentException if the attempt cannot be opened
+    QuizPackage open(String session, String courseId, String quizId);
+
+    SyncAck sync(SyncBatch batch);
+
+    // optionOrder is the order MCQ options are shown in for this attempt (null otherwise)
+    record PackagedQuestion(Question question, int[] optionOrder) {
+    }
+
+    record QuizPackage(String courseId, String quizId, List<PackagedQuestion> questions,
+                       Map<String, String> answers, long syncedSequence, long deadlineMillis) {
+    }
+
+    // Answers are in stored option order, as QuizAttempt records them; answeredMillis
+    // is when the student gave the answer, by the client's clock
+    record AnswerChange(long sequence, String questionId, String answer, long answeredMillis) {
+    }
+
+    record SyncBatch(String session, String courseId, String quizId, List<AnswerChange> changes, boolean submit) {
+    }
+
+    enum Status { ACCEPTED, SUBMITTED, TIME_UP, UNKNOWN_SESSION }
+
+    record SyncAck(Status status, long syncedSequence, int score) {
+    }
+}
@@ -0,0 +1,234 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Duplicate checks for one course's question bank. Exact copies are found by
+// hashing the normalized question text (with MCQ options); near-copies by MinHash
+// signatures over character shingles, bucketed by band so a check only compares
+// against the few questions that share a bucket.
+final class BankIntegrityIndex {
+    static final double NEAR_DUPLICATE_SIMILARITY = 0.8;
+
+    private static final int BANDS = 10;
+    private static final int ROWS_PER_BAND = 6;
+    private static final int SHINGLE_LENGTH = 4;
+    private static final long[] HASH_SEEDS = new long[BANDS * ROWS_PER_BAND];
+
+    static {
+        Random random = new Random(0xb4a11L);
+        for (int i = 0; i < HASH_SEEDS.length; i++) {
+            HASH_SEEDS[i] = random.nextLong() | 1L;
+        }
+    }
+
+    record Match(String questionId, double similarity) {
+    }
+
+    // A question and the copies of it that a bulk dedupe would remove
+    record DuplicateGroup(String original, List<Match> copies) {
+    }
+
+    record CheckResult(boolean duplicateId, String sameTextAs, List<Match> nearDuplicates) {
+        boolean isClean() {
+            return !duplicateId && sameTextAs == null && nearDuplicates.isEmpty();
+        }
+    }
+
+    private final Map<String, String> contentById;
+    private final Map<String, Set<String>> idsByContent;
+    private final Map<String, long[]> signatures;
+    private final Map<Long, Set<String>> buckets;
+    // A check is usually followed by adding the same question, so its signature is kept
+    private String lastContent;
+    private long[] lastSignature;
+
+    public BankIntegrityIndex() {
+        this.contentById = new LinkedHashMap<>();
+        this.idsByContent = new HashMap<>();
+        this.signatures = new HashMap<>();
+        this.buckets = new HashMap<>();
+    }
+
+    static BankIntegrityIndex build(List<Question> bank) {
+        BankIntegrityIndex index = new BankIntegrityIndex();
+        for (Question question : bank) {
+            index.add(question);
+        }
+        return index;
+    }
+
+    public synchronized boolean containsId(String questionId) {
+        return contentById.containsKey(questionId);
+    }
+
+    public synchronized CheckResult check(Question question) {
+        String content = normalize(question);
+        boolean duplicateId = contentById.containsKey(question.getQuestionId());
+
+        Set<String> sameText = idsByContent.get(content);
+        String sameTextAs = sameText != null && !sameText.isEmpty() ? sameText.iterator().next() : null;
+
+        List<Match> near = new ArrayList<>();
+        long[] signature = signatureOf(content);
+        for (String candidate : candidates(signature)) {
+            if (candidate.equals(sameTextAs)) continue;
+            double similarity = similarity(signature, signatures.get(candidate));
+            if (similarity >= NEAR_DUPLICATE_SIMILARITY) {
+                near.add(new Match(candidate, similarity));
+            }
+        }
+        near.sort(Comparator.comparingDouble(Match::similarity).reversed());
+        return new CheckResult(duplicateId, sameTextAs, near);
+    }
+
+    public synchronized void add(Question question) {
+        String questionId = question.getQuestionId();
+        if (contentById.containsKey(questionId)) {
+            remove(questionId);
+        }
+        String content = normalize(question);
+        long[] signature = signatureOf(content);
+        contentById.put(questionId, content);
+        idsByContent.computeIfAbsent(content, c -> new LinkedHashSet<>()).add(questionId);
+        signatures.put(questionId, signature);
+        for (long key : bandKeys(signature)) {
+            buckets.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(questionId);
+        }
+    }
+
+    public synchronized void remove(String questionId) {
+        String content = contentById.remove(questionId);
+        if (content == null) return;
+        Set<String> sameText = idsByContent.get(content);
+        sameText.remove(questionId);
+        if (sameText.isEmpty()) idsByContent.remove(content);
+        for (long key : bandKeys(signatures.remove(questionId))) {
+            Set<String> bucket = buckets.get(key);
+            bucket.remove(questionId);
+            if (bucket.isEmpty()) buckets.remove(key);
+        }
+    }
+
+    // Bulk dedupe: each group is the earliest question not yet grouped and the later
+    // questions that are exact or near copies of that question itself. Similarity is
+    // not transitive, so a question only similar to another copy is not grouped.
+    public synchronized List<DuplicateGroup> findDuplicateGroups() {
+        Map<String, Integer> position = new HashMap<>();
+        for (String questionId : contentById.keySet()) {
+            position.put(questionId, position.size());
+        }
+
+        Set<String> grouped = new HashSet<>();
+        List<DuplicateGroup> groups = new ArrayList<>();
+        for (String original : contentById.keySet()) {
+            if (!grouped.add(original)) continue;
+            String content = contentById.get(original);
+            long[] signature = signatures.get(original);
+
+            Set<String> candidates = candidates(signature);
+            candidates.addAll(idsByContent.get(content));
+            List<Match> copies = new ArrayList<>();
+            for (String candidate : candidates) {
+                if (grouped.contains(candidate)) continue;
+                double similarity = contentById.get(candidate).equals(content)
+                        ? 1.0 : similarity(signature, signatures.get(candidate));
+                if (similarity >= NEAR_DUPLICATE_SIMILARITY) {
+                    copies.add(new Match(candidate, similarity));
+                }
+            }
+            if (copies.isEmpty()) continue;
+            copies.sort(Comparator.comparing(match -> position.get(match.questionId())));
+            copies.forEach(match -> grouped.add(match.questionId()));
+            groups.add(new DuplicateGroup(original, copies));
+        }
+        return groups;
+    }
+
+    private Set<String> candidates(long[] signature) {
+        Set<String> candidates = new LinkedHashSet<>();
+        for (long key : bandKeys(signature)) {
+            Set<String> bucket = buckets.get(key);
+            if (bucket != null) candidates.addAll(bucket);
+        }
+        return candidates;
+    }
+
+    private static double similarity(long[] a, long[] b) {
+        int same = 0;
+        for (int i = 0; i < a.length; i++) {
+            if (a[i] == b[i]) same++;
+        }
+        return (double) same / a.length;
+    }
+
+    private long[] signatureOf(String content) {
+        if (!content.equals(lastContent)) {
+            lastSignature = signature(content);
+            lastContent = content;
+        }
+        return lastSignature;
+    }
+
+    private static long[] bandKeys(long[] signature) {
+        long[] keys = new long[BANDS];
+        for (int band = 0; band < BANDS; band++) {
+            long key = band;
+            for (int row = 0; row < ROWS_PER_BAND; row++) {
+                key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS_PER_BAND + row];
+            }
+            keys[band] = key;
+        }
+        return keys;
+    }
+
+    private static long[] signature(String content) {
+        // Each distinct shingle is mixed once; the per-seed hashes are cheap
+        // multiply-xorshift permutations of that value
+        Set<Long> shingles = new HashSet<>();
+        int count = Math.max(1, content.length() - SHINGLE_LENGTH + 1);
+        for (int start = 0; start < count; start++) {
+            long shingle = 0;
+            for (int i = start; i < Math.min(content.length(), start + SHINGLE_LENGTH); i++) {
+                shingle = shingle * 31 + content.charAt(i);
+            }
+            shingles.add(mix(shingle));
+        }
+
+        long[] hashes = new long[shingles.size()];
+        int n = 0;
+        for (long shingle : shingles) {
+            hashes[n++] = shingle;
+        }
+
+        long[] signature = new long[HASH_SEEDS.length];
+        for (int h = 0; h < HASH_SEEDS.length; h++) {
+            long seed = HASH_SEEDS[h];
+            long min = Long.MAX_VALUE;
+            for (long shingle : hashes) {
+                long value = (shingle ^ seed) * 0x9E3779B97F4A7C15L;
+                min = Math.min(min, value ^ (value >>> 32));
+            }
+            signature[h] = min;
+        }
+        return signature;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    // Lower case, punctuation dropped, whitespace collapsed; MCQ options included
+    static String normalize(Question question) {
+        StringBuilder text = new StringBuilder(question.getQuestionText());
+        if (question instanceof MCQQuestion mcq) {
+            List<String> options = new ArrayList<>(mcq.getOptions());
+            Collections.sort(options);
+            for (String option : options) {
+                text.append(' ').append(option);
+            }
+        }
+        return text.toString().toLowerCase().replaceAll("[^\\p{L}\\p{N}]+", " ").trim();
+    }
+}
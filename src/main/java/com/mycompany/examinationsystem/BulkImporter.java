@@ -0,0 +1,301 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.IntStream;
+
+// Streaming CSV importer for users, courses, enrolments and question banks.
+// The file is read in chunks; each chunk is parsed and validated in parallel,
+// then inserted in one batch on the calling thread, skipping duplicate ids.
+// The questions of a chunk are added to each course's bank together, so a
+// chunk publishes one bank version per course instead of one per row.
+//
+// File formats (one header line, then one record per line):
+//   users:      role,userId,password,name                (role = student | teacher)
+//   courses:    courseId,courseName,teacherId
+//   enrolments: courseId,studentId
+//   questions:  courseId,type,questionId,topic,questionText,marks,answer[,option...]
+//               (type = MCQ with answer = correct option number,
+//                TF with answer = true | false, SUBJECTIVE with answer = model answer)
+class BulkImporter {
+    private static final int CHUNK_SIZE = 10_000;
+    private static final int MAX_REPORTED_ERRORS = 10;
+
+    private final ExaminationSystem system;
+
+    public BulkImporter(ExaminationSystem system) {
+        this.system = system;
+    }
+
+    // Summary of one import run
+    record ImportReport(String kind, long rows, long imported, long duplicates, long invalid,
+                        long elapsedMillis, List<String> errors) {
+        double rowsPerSecond() {
+            return elapsedMillis == 0 ? rows * 1000.0 : rows * 1000.0 / elapsedMillis;
+        }
+    }
+
+    // Result of parsing one line: either a record to insert or an error message
+    private record Parsed(long lineNumber, Object value, String error) {
+    }
+
+    // Why a row was not imported
+    private record Skipped(Reason reason, String message) {
+        enum Reason { DUPLICATE, INVALID }
+
+        static Skipped duplicate(String message) {
+            return new Skipped(Reason.DUPLICATE, message);
+        }
+
+        static Skipped invalid(String message) {
+            return new Skipped(Reason.INVALID, message);
+        }
+    }
+
+    private record Enrolment(String courseId, String studentId) {
+    }
+
+    private record CourseRow(String courseId, String courseName, String teacherId) {
+    }
+
+    private record QuestionRow(String courseId, Question question) {
+    }
+
+    // Questions of one chunk for one course, waiting to be added to its bank. Rows
+    // are checked against these as well as the bank, as they are not in its index yet.
+    private static final class QuestionBatch {
+        final List<Question> questions = new ArrayList<>();
+        final Set<String> ids = new HashSet<>();
+        final Map<String, String> idsByContent = new HashMap<>();
+    }
+
+    public ImportReport importFile(String kind, Path file) throws IOException {
+        long started = System.nanoTime();
+        long[] counts = new long[4]; // rows, imported, duplicates, invalid
+        List<String> errors = new ArrayList<>();
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            reader.readLine(); // header
+            long lineNumber = 1;
+            List<String> chunk = new ArrayList<>(CHUNK_SIZE);
+            List<Long> lineNumbers = new ArrayList<>(CHUNK_SIZE);
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) continue;
+                chunk.add(line);
+                lineNumbers.add(lineNumber);
+                if (chunk.size() == CHUNK_SIZE) {
+                    processChunk(kind, chunk, lineNumbers, counts, errors);
+                    chunk = new ArrayList<>(CHUNK_SIZE);
+                    lineNumbers = new ArrayList<>(CHUNK_SIZE);
+                }
+            }
+            if (!chunk.isEmpty()) {
+                processChunk(kind, chunk, lineNumbers, counts, errors);
+            }
+        }
+
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        return new ImportReport(kind, counts[0], counts[1], counts[2], counts[3], elapsedMillis, errors);
+    }
+
+    private void processChunk(String kind, List<String> lines, List<Long> lineNumbers,
+                              long[] counts, List<String> errors) {
+        List<Parsed> parsed = IntStream.range(0, lines.size()).parallel()
+                .mapToObj(i -> parseLine(kind, lineNumbers.get(i), lines.get(i)))
+                .toList();
+
+        counts[0] += parsed.size();
+        Map<String, QuestionBatch> batches = new LinkedHashMap<>();
+        for (Parsed row : parsed) {
+            Skipped skipped = row.error() != null ? Skipped.invalid(row.error()) : insert(row.value(), batches);
+            if (skipped == null) {
+                counts[1]++;
+            } else if (skipped.reason() == Skipped.Reason.DUPLICATE) {
+                counts[2]++;
+            } else {
+                counts[3]++;
+                if (errors.size() < MAX_REPORTED_ERRORS) {
+                    errors.add("Line " + row.lineNumber() + ": " + skipped.message());
+                }
+            }
+        }
+        ShardRouter shards = system.getShards();
+        batches.forEach((courseId, batch) -> shards.addQuestions(courseId, batch.questions));
+    }
+
+    private Parsed parseLine(String kind, long lineNumber, String line) {
+        try {
+            List<String> fields = splitCsv(line);
+            Object value = switch (kind) {
+                case "users" -> parseUser(fields);
+                case "courses" -> parseCourse(fields);
+                case "enrolments" -> parseEnrolment(fields);
+                case "questions" -> parseQuestion(fields);
+                default -> throw new IllegalArgumentException("Unknown import kind: " + kind);
+            };
+            return new Parsed(lineNumber, value, null);
+        } catch (IllegalArgumentException e) {
+            return new Parsed(lineNumber, null, e.getMessage());
+        }
+    }
+
+    private User parseUser(List<String> fields) {
+        require(fields, 4);
+        String userId = nonEmpty(fields.get(1), "userId");
+        String password = nonEmpty(fields.get(2), "password");
+        String name = nonEmpty(fields.get(3), "name");
+        return switch (fields.get(0).trim().toLowerCase()) {
+            case "student" -> new Student(userId, password, name);
+            case "teacher" -> new Teacher(userId, password, name);
+            default -> throw new IllegalArgumentException("Unknown role: " + fields.get(0));
+        };
+    }
+
+    private CourseRow parseCourse(List<String> fields) {
+        require(fields, 3);
+        return new CourseRow(nonEmpty(fields.get(0), "courseId"), nonEmpty(fields.get(1), "courseName"),
+                nonEmpty(fields.get(2), "teacherId"));
+    }
+
+    private Enrolment parseEnrolment(List<String> fields) {
+        require(fields, 2);
+        return new Enrolment(nonEmpty(fields.get(0), "courseId"), nonEmpty(fields.get(1), "studentId"));
+    }
+
+    private QuestionRow parseQuestion(List<String> fields) {
+        require(fields, 7);
+        String courseId = nonEmpty(fields.get(0), "courseId");
+        String questionId = nonEmpty(fields.get(2), "questionId");
+        String topic = nonEmpty(fields.get(3), "topic");
+        String text = nonEmpty(fields.get(4), "questionText");
+        int marks;
+        try {
+            marks = Integer.parseInt(fields.get(5).trim());
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid marks: " + fields.get(5));
+        }
+        if (marks < 0) throw new IllegalArgumentException("Invalid marks: " + marks);
+        String answer = fields.get(6).trim();
+
+        Question question = switch (fields.get(1).trim().toUpperCase()) {
+            case "MCQ" -> {
+                List<String> options = new ArrayList<>(fields.subList(7, fields.size()));
+                if (options.size() < 2) throw new IllegalArgumentException("MCQ needs at least 2 options");
+                int correct;
+                try {
+                    correct = Integer.parseInt(answer) - 1;
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Invalid correct option: " + answer);
+                }
+                if (correct < 0 || correct >= options.size()) {
+                    throw new IllegalArgumentException("Correct option out of range: " + answer);
+                }
+                yield new MCQQuestion(questionId, topic, text, marks, options, correct);
+            }
+            case "TF" -> {
+                if (!answer.equalsIgnoreCase("true") && !answer.equalsIgnoreCase("false")) {
+                    throw new IllegalArgumentException("Invalid true/false answer: " + answer);
+                }
+                yield new TrueFalseQuestion(questionId, topic, text, marks, Boolean.parseBoolean(answer));
+            }
+            case "SUBJECTIVE" -> new SubjectiveQuestion(questionId, topic, text, marks, answer);
+            default -> throw new IllegalArgumentException("Unknown question type: " + fields.get(1));
+        };
+        return new QuestionRow(courseId, question);
+    }
+
+    // Inserts one validated record, or queues it in batches if it is a question;
+    // returns null on success or why it was skipped
+    private Skipped insert(Object value, Map<String, QuestionBatch> batches) {
+        ShardRouter shards = system.getShards();
+        if (value instanceof User user) {
+            return system.addUser(user) ? null : Skipped.duplicate("Duplicate user: " + user.getUserId());
+        }
+        if (value instanceof CourseRow row) {
+            if (shards.getCourse(row.courseId()) != null) {
+                return Skipped.duplicate("Duplicate course: " + row.courseId());
+            }
+            if (!(system.getUser(row.teacherId()) instanceof Teacher teacher)) {
+                return Skipped.invalid("Unknown teacher: " + row.teacherId());
+            }
+            shards.addCourse(new Course(row.courseId(), row.courseName(), teacher));
+            return null;
+        }
+        if (value instanceof Enrolment row) {
+            Course course = shards.getCourse(row.courseId());
+            if (course == null) return Skipped.invalid("Unknown course: " + row.courseId());
+            if (!(system.getUser(row.studentId()) instanceof Student student)) {
+                return Skipped.invalid("Unknown student: " + row.studentId());
+            }
+            if (course.isEnrolled(student)) return Skipped.duplicate("Duplicate enrolment: " + row.studentId());
+            course.enrollStudent(student);
+            return null;
+        }
+        if (value instanceof QuestionRow row) {
+            if (shards.getCourse(row.courseId()) == null) return Skipped.invalid("Unknown course: " + row.courseId());
+            BankIntegrityIndex.CheckResult check = shards.getIntegrityIndex(row.courseId()).check(row.question());
+            QuestionBatch batch = batches.computeIfAbsent(row.courseId(), id -> new QuestionBatch());
+            String questionId = row.question().getQuestionId();
+            if (check.duplicateId() || batch.ids.contains(questionId)) {
+                return Skipped.duplicate("Duplicate question: " + questionId);
+            }
+            String content = BankIntegrityIndex.normalize(row.question());
+            String sameTextAs = check.sameTextAs() != null ? check.sameTextAs() : batch.idsByContent.get(content);
+            if (sameTextAs != null) {
+                return Skipped.duplicate("Duplicate question text: " + questionId + " = " + sameTextAs);
+            }
+            // Near-copies are kept; the bank's duplicate finder can review them later
+            batch.questions.add(row.question());
+            batch.ids.add(questionId);
+            batch.idsByContent.put(content, questionId);
+            return null;
+        }
+        return Skipped.invalid("Unsupported record");
+    }
+
+    private static void require(List<String> fields, int count) {
+        if (fields.size() < count) {
+            throw new IllegalArgumentException("Expected at least " + count + " fields, found " + fields.size());
+        }
+    }
+
+    private static String nonEmpty(String value, String field) {
+        String trimmed = value.trim();
+        if (trimmed.isEmpty()) throw new IllegalArgumentException("Missing " + field);
+        return trimmed;
+    }
+
+    // Splits one CSV line, honouring double-quoted fields and "" escapes
+    static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) throw new IllegalArgumentException("Unterminated quoted field");
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,180 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.IntStream;
+
+// Flags pairs of students whose answers in a quiz are suspiciously similar.
+// Answers are encoded as bitsets, candidate pairs are found by MinHash banding
+// over each student's wrong answers, and only candidates are scored (in parallel),
+// so the whole class is never compared pairwise.
+class CollusionDetector {
+    private static final int BANDS = 16;
+    private static final int ROWS_PER_BAND = 2;
+
+    private final int minSharedWrong;
+    private final double threshold;
+    private final long[] hashSeeds;
+
+    public CollusionDetector() {
+        this(2, 0.6);
+    }
+
+    public CollusionDetector(int minSharedWrong, double threshold) {
+        this.minSharedWrong = minSharedWrong;
+        this.threshold = threshold;
+        this.hashSeeds = new long[BANDS * ROWS_PER_BAND];
+        Random random = new Random(0x5eedL);
+        for (int i = 0; i < hashSeeds.length; i++) {
+            hashSeeds[i] = random.nextLong() | 1L;
+        }
+    }
+
+    // Pair of students flagged for review
+    record SuspiciousPair(Student first, Student second, int sharedWrong, int identicalAnswers,
+                          double similarity) {
+    }
+
+    // Answer vector of one attempt
+    private static final class AnswerVector {
+        final Student student;
+        final BitSet answered;
+        final BitSet wrong;
+        final int[] codes;
+        long[] wrongTokens;
+
+        AnswerVector(Student student, int questionCount) {
+            this.student = student;
+            this.answered = new BitSet(questionCount);
+            this.wrong = new BitSet(questionCount);
+            this.codes = new int[questionCount];
+        }
+    }
+
+    public List<SuspiciousPair> detect(Quiz quiz, QuizSnapshot snapshot) {
+        List<Question> questions = quiz.getQuestions();
+        List<QuizSnapshot.AttemptView> attempts = snapshot.attempts();
+
+        List<AnswerVector> vectors = attempts.parallelStream()
+                .map(attempt -> encode(attempt, questions))
+                .toList();
+
+        Set<Long> candidates = findCandidates(vectors);
+
+        List<SuspiciousPair> flagged = new ArrayList<>(candidates.parallelStream()
+                .map(key -> score(vectors.get((int) (key >>> 32)), vectors.get((int) (long) key)))
+                .filter(Objects::nonNull)
+                .toList());
+        flagged.sort(Comparator.comparingDouble(SuspiciousPair::similarity).reversed()
+                .thenComparing(Comparator.comparingInt(SuspiciousPair::sharedWrong).reversed()));
+        return flagged;
+    }
+
+    private AnswerVector encode(QuizSnapshot.AttemptView attempt, List<Question> questions) {
+        AnswerVector vector = new AnswerVector(attempt.student(), questions.size());
+        int wrongCount = 0;
+        for (int i = 0; i < questions.size(); i++) {
+            Question question = questions.get(i);
+            String answer = attempt.answers().get(question.getQuestionId());
+            if (answer == null || answer.isBlank()) continue;
+
+            String normalized = answer.trim().toLowerCase();
+            vector.answered.set(i);
+            vector.codes[i] = normalized.hashCode() | 1; // 0 is reserved for "no answer"
+            if (!question.checkAnswer(answer)) {
+                vector.wrong.set(i);
+                wrongCount++;
+            }
+        }
+
+        // A wrong answer is identified by the question position and the answer given
+        vector.wrongTokens = new long[wrongCount];
+        int t = 0;
+        for (int i = vector.wrong.nextSetBit(0); i >= 0; i = vector.wrong.nextSetBit(i + 1)) {
+            vector.wrongTokens[t++] = ((long) i << 32) | (vector.codes[i] & 0xffffffffL);
+        }
+        return vector;
+    }
+
+    private Set<Long> findCandidates(List<AnswerVector> vectors) {
+        Map<Long, List<Integer>> buckets = new ConcurrentHashMap<>();
+        IntStream.range(0, vectors.size()).parallel().forEach(index -> {
+            AnswerVector vector = vectors.get(index);
+            // Students without enough wrong answers cannot share enough of them
+            if (vector.wrongTokens.length < minSharedWrong) return;
+
+            long[] signature = minHash(vector.wrongTokens);
+            for (int band = 0; band < BANDS; band++) {
+                long key = band;
+                for (int row = 0; row < ROWS_PER_BAND; row++) {
+                    key = key * 0x9E3779B97F4A7C15L + signature[band * ROWS_PER_BAND + row];
+                }
+                buckets.computeIfAbsent(key, k -> Collections.synchronizedList(new ArrayList<>()))
+                        .add(index);
+            }
+        });
+
+        Set<Long> candidates = ConcurrentHashMap.newKeySet();
+        buckets.values().parallelStream()
+                .filter(bucket -> bucket.size() > 1)
+                .forEach(bucket -> {
+                    for (int i = 0; i < bucket.size(); i++) {
+                        for (int j = i + 1; j < bucket.size(); j++) {
+                            int a = Math.min(bucket.get(i), bucket.get(j));
+                            int b = Math.max(bucket.get(i), bucket.get(j));
+                            candidates.add(((long) a << 32) | b);
+                        }
+                    }
+                });
+        return candidates;
+    }
+
+    private long[] minHash(long[] tokens) {
+        long[] signature = new long[hashSeeds.length];
+        Arrays.fill(signature, Long.MAX_VALUE);
+        for (long token : tokens) {
+            for (int h = 0; h < hashSeeds.length; h++) {
+                long value = mix(token * hashSeeds[h]);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return z ^ (z >>> 33);
+    }
+
+    private SuspiciousPair score(AnswerVector a, AnswerVector b) {
+        BitSet bothWrong = (BitSet) a.wrong.clone();
+        bothWrong.and(b.wrong);
+        int sharedWrong = 0;
+        for (int i = bothWrong.nextSetBit(0); i >= 0; i = bothWrong.nextSetBit(i + 1)) {
+            if (a.codes[i] == b.codes[i]) sharedWrong++;
+        }
+        if (sharedWrong < minSharedWrong) return null;
+
+        BitSet anyWrong = (BitSet) a.wrong.clone();
+        anyWrong.or(b.wrong);
+        double wrongSimilarity = (double) sharedWrong / anyWrong.cardinality();
+
+        BitSet bothAnswered = (BitSet) a.answered.clone();
+        bothAnswered.and(b.answered);
+        int identical = 0;
+        for (int i = bothAnswered.nextSetBit(0); i >= 0; i = bothAnswered.nextSetBit(i + 1)) {
+            if (a.codes[i] == b.codes[i]) identical++;
+        }
+        BitSet anyAnswered = (BitSet) a.answered.clone();
+        anyAnswered.or(b.answered);
+        double overallSimilarity = (double) identical / anyAnswered.cardinality();
+
+        // Matching wrong answers are much stronger evidence than matching right ones
+        double similarity = 0.7 * wrongSimilarity + 0.3 * overallSimilarity;
+        if (similarity < threshold) return null;
+        return new SuspiciousPair(a.student, b.student, sharedWrong, identical, similarity);
+    }
+}
@@ -0,0 +1,150 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// One partition of the institution: the courses (with their quizzes and attempts)
+// and question banks whose course id hashes to this shard. Each shard has its own
+// worker thread and its own data file, so saving and recovery only touch its share.
+class CourseShard {
+    // Courses and question banks as saved in one shard file
+    record Contents(Map<String, Course> courses, Map<String, QuestionBank> questionBanks) {
+    }
+
+    private final int shardId;
+    private final String dataFile;
+    private final ExecutorService worker;
+    private final Map<String, Course> courses;
+    private final Map<String, QuestionBank> questionBanks;
+    private final Map<String, BankIntegrityIndex> integrityIndexes;
+    private final Map<String, QuestionSearchIndex> searchIndexes;
+
+    public CourseShard(int shardId) {
+        this.shardId = shardId;
+        this.dataFile = fileName(shardId);
+        this.courses = new ConcurrentHashMap<>();
+        this.questionBanks = new ConcurrentHashMap<>();
+        this.integrityIndexes = new ConcurrentHashMap<>();
+        this.searchIndexes = new ConcurrentHashMap<>();
+        this.worker = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "course-shard-" + shardId);
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    static String fileName(int shardId) {
+        return "shard_" + shardId + ".ser";
+    }
+
+    public int getShardId() { return shardId; }
+    public String getDataFile() { return dataFile; }
+    public Map<String, Course> getCourses() { return courses; }
+    public Map<String, QuestionBank> getQuestionBanks() { return questionBanks; }
+    
+    // Bank indexes are built on first use from the bank, so they are never persisted
+    public BankIntegrityIndex getIntegrityIndex(String courseId) {
+        return integrityIndexes.computeIfAbsent(courseId,
+                id -> BankIntegrityIndex.build(currentQuestions(id)));
+    }
+    
+    public QuestionSearchIndex getSearchIndex(String courseId) {
+        return searchIndexes.computeIfAbsent(courseId,
+                id -> QuestionSearchIndex.build(currentQuestions(id)));
+    }
+    
+    private List<Question> currentQuestions(String courseId) {
+        QuestionBank bank = questionBanks.get(courseId);
+        return bank != null ? bank.current() : List.of();
+    }
+    
+    public void invalidateIndexes(String courseId) {
+        integrityIndexes.remove(courseId);
+        searchIndexes.remove(courseId);
+    }
+
+    // Runs a task on this shard's worker thread
+    public <T> Future<T> submit(Callable<T> task) {
+        return worker.submit(task);
+    }
+
+    // Archives this shard's closed quizzes; a quiz whose archive cannot be written
+    // keeps its attempts and is tried again on the next save
+    public Future<Integer> archiveClosedQuizzes(AttemptCheckpointer checkpointer) {
+        return submit(() -> {
+            int archived = 0;
+            for (Course course : courses.values()) {
+                for (Quiz quiz : course.getQuizzes()) {
+                    try {
+                        if (quiz.archive(checkpointer)) archived++;
+                    } catch (IOException e) {
+                        Terminal.get().println("Error archiving quiz " + quiz.getQuizId() + " of " +
+                                course.getCourseId() + ": " + e);
+                    }
+                }
+            }
+            return archived;
+        });
+    }
+
+    public void clear() {
+        courses.clear();
+        questionBanks.clear();
+        integrityIndexes.clear();
+        searchIndexes.clear();
+    }
+
+    // Writes a temporary file and moves it over the shard file, so a crash while
+    // saving leaves the previous copy intact
+    public Future<Boolean> save() {
+        return submit(() -> {
+            Path target = Path.of(dataFile);
+            Path temp = Path.of(dataFile + ".tmp");
+            try (ObjectOutputStream oos = new ObjectOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                oos.writeObject(new HashMap<>(courses));
+                oos.writeObject(new HashMap<>(questionBanks));
+            } catch (IOException e) {
+                return false;
+            }
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                return true;
+            } catch (IOException e) {
+                return false;
+            }
+        });
+    }
+
+    // Loads this shard's file; returns false if there is nothing to load
+    public Future<Boolean> load() {
+        return submit(() -> {
+            File file = new File(dataFile);
+            if (!file.exists()) return false;
+            Contents contents = read(file);
+            courses.clear();
+            courses.putAll(contents.courses());
+            questionBanks.clear();
+            questionBanks.putAll(contents.questionBanks());
+            integrityIndexes.clear();
+            searchIndexes.clear();
+            return true;
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    static Contents read(File file) throws IOException, ClassNotFoundException {
+        try (ObjectInputStream ois = new ObjectInputStream(
+                new BufferedInputStream(new FileInputStream(file)))) {
+            Map<String, Course> loadedCourses = (Map<String, Course>) ois.readObject();
+            Map<String, QuestionBank> loadedBanks = (Map<String, QuestionBank>) ois.readObject();
+            return new Contents(loadedCourses, loadedBanks);
+        }
+    }
+
+    public void shutdown() {
+        worker.shutdown();
+    }
+}
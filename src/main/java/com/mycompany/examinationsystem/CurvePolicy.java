@@ -0,0 +1,81 @@
+package com.mycompany.examinationsystem;
+
+// Maps a student's percentage (and standing in the cohort) to a letter grade
+interface CurvePolicy {
+    String getName();
+
+    // percentileRank is 0-100; topPercentage is the best percentage in the cohort
+    String gradeFor(double percentage, double percentileRank, double topPercentage);
+}
+
+// Fixed cut-offs on the raw percentage, e.g. 90/80/70/60 for A-D
+class AbsoluteCurve implements CurvePolicy {
+    private static final String[] GRADES = {"A", "B", "C", "D"};
+    private final double[] cutoffs;
+
+    public AbsoluteCurve() {
+        this(90, 80, 70, 60);
+    }
+
+    public AbsoluteCurve(double... cutoffs) {
+        this.cutoffs = cutoffs;
+    }
+
+    @Override
+    public String getName() { return "Absolute scale"; }
+
+    @Override
+    public String gradeFor(double percentage, double percentileRank, double topPercentage) {
+        for (int i = 0; i < cutoffs.length && i < GRADES.length; i++) {
+            if (percentage >= cutoffs[i]) return GRADES[i];
+        }
+        return "F";
+    }
+}
+
+// Scales every score so the best in the cohort counts as 100%, then applies fixed cut-offs
+class TopScaledCurve implements CurvePolicy {
+    private final AbsoluteCurve scale;
+
+    public TopScaledCurve() {
+        this(new AbsoluteCurve());
+    }
+
+    public TopScaledCurve(AbsoluteCurve scale) {
+        this.scale = scale;
+    }
+
+    @Override
+    public String getName() { return "Scaled to top score"; }
+
+    @Override
+    public String gradeFor(double percentage, double percentileRank, double topPercentage) {
+        double scaled = topPercentage > 0 ? percentage * 100.0 / topPercentage : percentage;
+        return scale.gradeFor(scaled, percentileRank, topPercentage);
+    }
+}
+
+// Grades by standing in the cohort, e.g. top 10% A, next 20% B, middle 40% C, next 20% D
+class PercentileCurve implements CurvePolicy {
+    private static final String[] GRADES = {"A", "B", "C", "D"};
+    private final double[] minimumRanks;
+
+    public PercentileCurve() {
+        this(90, 70, 30, 10);
+    }
+
+    public PercentileCurve(double... minimumRanks) {
+        this.minimumRanks = minimumRanks;
+    }
+
+    @Override
+    public String getName() { return "Percentile curve"; }
+
+    @Override
+    public String gradeFor(double percentage, double percentileRank, double topPercentage) {
+        for (int i = 0; i < minimumRanks.length && i < GRADES.length; i++) {
+            if (percentileRank >= minimumRanks[i]) return GRADES[i];
+        }
+        return "F";
+    }
+}
@@ -1,13 +1,17 @@
 package com.mycompany.examinationsystem;
 
 import java.io.*;
+import java.nio.file.*;
 import java.util.*;
+import java.util.concurrent.*;
 import java.time.*;
-import java.text.SimpleDateFormat;
-import java.time.format.DateTimeFormatter;
 
 // Base User class
 abstract class User implements Serializable {
+    // The saved classes keep the serialVersionUIDs computed for their first
+    // version, so system_data.ser files written before a change still load
+    private static final long serialVersionUID = 4256271786550663359L;
+    
     protected String userId;
     protected String password;
     protected String name;
@@ -25,30 +29,46 @@ abstract class User implements Serializable {
     public String getUserId() { return userId; }
     public String getName() { return name; }
     
+    // Users are identified by id; shard files each hold their own copies
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        return userId.equals(((User) o).userId);
+    }
+    
+    @Override
+    public int hashCode() {
+        return userId.hashCode();
+    }
+    
     abstract void showMenu(ExaminationSystem system);
 }
 
 // Teacher class
 class Teacher extends User {
+    private static final long serialVersionUID = 847913811516879048L;
+    
     public Teacher(String userId, String password, String name) {
         super(userId, password, name);
     }
     
     @Override
     void showMenu(ExaminationSystem system) {
-        Scanner scanner = new Scanner(System.in);
+        Terminal io = Terminal.get();
         while (true) {
-            System.out.println("\nTeacher Menu:");
-            System.out.println("1. Create Question Bank");
-            System.out.println("2. Create Quiz");
-            System.out.println("3. View Quiz Results");
-            System.out.println("4. View Analytics");
-            System.out.println("5. View Attendance");
-            System.out.println("6. Logout");
+            io.println("\nTeacher Menu:");
+            io.println("1. Create Question Bank");
+            io.println("2. Create Quiz");
+            io.println("3. View Quiz Results");
+            io.println("4. View Analytics");
+            io.println("5. View Attendance");
+            io.println("6. Integrity Report");
+            io.println("7. Grade Curve");
+            io.println("8. Logout");
             
-            System.out.print("Enter choice: ");
-            int choice = scanner.nextInt();
-            scanner.nextLine(); // consume newline
+            io.print("Enter choice: ");
+            int choice = io.readChoice();
             
             switch (choice) {
                 case 1 -> system.createQuestionBank(this);
@@ -56,10 +76,12 @@ class Teacher extends User {
                 case 3 -> system.viewQuizResults(this);
                 case 4 -> system.viewAnalytics(this);
                 case 5 -> system.viewAttendance(this);
-                case 6 -> {
+                case 6 -> system.viewIntegrityReport(this);
+                case 7 -> system.viewGradeCurve(this);
+                case 8 -> {
                     return;
                 }
-                default -> System.out.println("Invalid choice!");
+                default -> io.println("Invalid choice!");
             }
         }
     }
@@ -67,77 +89,121 @@ class Teacher extends User {
 
 // Student class
 class Student extends User {
+    private static final long serialVersionUID = 2110213500475976468L;
+    
     public Student(String userId, String password, String name) {
         super(userId, password, name);
     }
     
     @Override
     void showMenu(ExaminationSystem system) {
-        Scanner scanner = new Scanner(System.in);
+        Terminal io = Terminal.get();
         while (true) {
-            System.out.println("\nStudent Menu:");
-            System.out.println("1. Attempt Quiz");
-            System.out.println("2. View Results");
-            System.out.println("3. Logout");
+            io.println("\nStudent Menu:");
+            io.println("1. Attempt Quiz");
+            io.println("2. Attempt Quiz (offline-first)");
+            io.println("3. View Results");
+            io.println("4. Logout");
             
-            System.out.print("Enter choice: ");
-            int choice = scanner.nextInt();
-            scanner.nextLine(); // consume newline
+            io.print("Enter choice: ");
+            int choice = io.readChoice();
             
             switch (choice) {
                 case 1 -> system.attemptQuiz(this);
-                case 2 -> system.viewStudentResults(this);
-                case 3 -> {
+                case 2 -> system.attemptQuizOffline(this);
+                case 3 -> system.viewStudentResults(this);
+                case 4 -> {
                     return;
                 }
-                default -> System.out.println("Invalid choice!");
+                default -> io.println("Invalid choice!");
             }
         }
     }
 }
 
-// Question hierarchy
+// Question hierarchy. Questions are immutable: editing one creates the next
+// version under the same id, and quizzes keep the version they were created with.
 abstract class Question implements Serializable {
-    protected String questionId;
-    protected String topic;
-    protected String questionText;
-    protected int marks;
+    private static final long serialVersionUID = 83886131377612206L;
+    
+    protected final String questionId;
+    protected final int version;
+    protected final String topic;
+    protected final String questionText;
+    protected final int marks;
     
     public Question(String questionId, String topic, String questionText, int marks) {
+        this(questionId, 1, topic, questionText, marks);
+    }
+    
+    protected Question(String questionId, int version, String topic, String questionText, int marks) {
         this.questionId = questionId;
+        this.version = version;
         this.topic = topic;
         this.questionText = questionText;
         this.marks = marks;
     }
     
     public String getQuestionId() { return questionId; }
+    public int getVersion() { return version; }
     public String getTopic() { return topic; }
     public String getQuestionText() { return questionText; }
     public int getMarks() { return marks; }
     
     abstract void displayQuestion();
     abstract boolean checkAnswer(String answer);
+    
+    // Next version of this question with the given details; the answer is unchanged
+    abstract Question revise(String topic, String questionText, int marks);
+    
+    // Questions saved before versioning read back as version 0; they become
+    // version 1, with the immutable options of a newly created question
+    protected Object readResolve() {
+        return version == 0 ? revise(topic, questionText, marks) : this;
+    }
 }
 
 class MCQQuestion extends Question {
+    private static final long serialVersionUID = 4526828657667179541L;
+    
     private final List<String> options;
-    private int correctOption;
+    private final int correctOption;
     
     public MCQQuestion(String questionId, String topic, String questionText, int marks, 
                       List<String> options, int correctOption) {
-        super(questionId, topic, questionText, marks);
-        this.options = options;
+        this(questionId, 1, topic, questionText, marks, options, correctOption);
+    }
+    
+    private MCQQuestion(String questionId, int version, String topic, String questionText, int marks,
+                        List<String> options, int correctOption) {
+        super(questionId, version, topic, questionText, marks);
+        this.options = List.copyOf(options);
         this.correctOption = correctOption;
     }
     
     @Override
     void displayQuestion() {
-        System.out.println(questionText);
+        Terminal io = Terminal.get();
+        io.println(questionText);
         for (int i = 0; i < options.size(); i++) {
-            System.out.println((i+1) + ". " + options.get(i));
+            io.println((i+1) + ". " + options.get(i));
+        }
+    }
+    
+    // Shows the options in the given order (indexes into the stored options)
+    void displayQuestion(int[] order) {
+        Terminal io = Terminal.get();
+        io.println(questionText);
+        for (int i = 0; i < order.length; i++) {
+            io.println((i+1) + ". " + options.get(order[i]));
         }
     }
     
+    @Override
+    Question revise(String topic, String questionText, int marks) {
+        return new MCQQuestion(questionId, version + 1, topic, questionText, marks, options, correctOption);
+    }
+    
     @Override
     boolean checkAnswer(String answer) {
         try {
@@ -148,34 +214,49 @@ class MCQQuestion extends Question {
         }
     }
     
-    // For randomization
-    public void shuffleOptions() {
-        Collections.shuffle(options);
-        // Update correct option index after shuffling
-        String correctAnswer = options.get(correctOption);
-        for (int i = 0; i < options.size(); i++) {
-            if (options.get(i).equals(correctAnswer)) {
-                correctOption = i;
-                break;
-            }
+    public List<String> getOptions() {
+        return options;
+    }
+    
+    // Maps an option number as shown in the given order back to the stored option
+    // number, which is what attempts record; other input is returned unchanged
+    public String toStoredAnswer(int[] order, String shownNumber) {
+        try {
+            int index = Integer.parseInt(shownNumber.trim()) - 1;
+            return index >= 0 && index < order.length ? String.valueOf(order[index] + 1) : shownNumber;
+        } catch (NumberFormatException e) {
+            return shownNumber;
         }
     }
 }
 
 class TrueFalseQuestion extends Question {
+    private static final long serialVersionUID = 1193645055344565870L;
+    
     private final boolean correctAnswer;
     
     public TrueFalseQuestion(String questionId, String topic, String questionText, int marks, 
                             boolean correctAnswer) {
-        super(questionId, topic, questionText, marks);
+        this(questionId, 1, topic, questionText, marks, correctAnswer);
+    }
+    
+    private TrueFalseQuestion(String questionId, int version, String topic, String questionText, int marks,
+                              boolean correctAnswer) {
+        super(questionId, version, topic, questionText, marks);
         this.correctAnswer = correctAnswer;
     }
     
+    @Override
+    Question revise(String topic, String questionText, int marks) {
+        return new TrueFalseQuestion(questionId, version + 1, topic, questionText, marks, correctAnswer);
+    }
+    
     @Override
     void displayQuestion() {
-        System.out.println(questionText);
-        System.out.println("1. True");
-        System.out.println("2. False");
+        Terminal io = Terminal.get();
+        io.println(questionText);
+        io.println("1. True");
+        io.println("2. False");
     }
     
     @Override
@@ -191,17 +272,30 @@ class TrueFalseQuestion extends Question {
 }
 
 class SubjectiveQuestion extends Question {
+    private static final long serialVersionUID = 1883754491894104787L;
+    
     private final String modelAnswer;
     
     public SubjectiveQuestion(String questionId, String topic, String questionText, int marks, 
                              String modelAnswer) {
-        super(questionId, topic, questionText, marks);
+        this(questionId, 1, topic, questionText, marks, modelAnswer);
+    }
+    
+    private SubjectiveQuestion(String questionId, int version, String topic, String questionText, int marks,
+                               String modelAnswer) {
+        super(questionId, version, topic, questionText, marks);
         this.modelAnswer = modelAnswer;
     }
     
+    @Override
+    Question revise(String topic, String questionText, int marks) {
+        return new SubjectiveQuestion(questionId, version + 1, topic, questionText, marks, modelAnswer);
+    }
+    
     @Override
     void displayQuestion() {
-        System.out.println(questionText);
+        Terminal io = Terminal.get();
+        io.println(questionText);
     }
     
     @Override
@@ -214,54 +308,230 @@ class SubjectiveQuestion extends Question {
 
 // Quiz class
 class Quiz implements Serializable {
-    private final String quizId;
-    private final String courseId;
-    private final Teacher createdBy;
-    private final LocalDateTime startTime;
-    private final Duration duration;
-    private final List<Question> questions;
-    private final Map<String, QuizAttempt> attempts;
-    
-    public Quiz(String quizId, String courseId, Teacher createdBy, LocalDateTime startTime, 
-               Duration duration, List<Question> questions) {
+    private static final long serialVersionUID = -8048679889568215926L;
+    
+    // Not final: readObject also reads quizzes saved by earlier versions
+    private String quizId;
+    private String courseId;
+    private Teacher createdBy;
+    private ZonedDateTime startTime;
+    private Duration duration;
+    private long startMillis;
+    private long endMillis;
+    private int bankVersion;
+    private List<Question> questions;
+    private Map<String, QuizAttempt> attempts;
+    private int adaptiveLength;
+    private volatile boolean archived; // attempts moved to the quiz archive
+    private volatile long lastStartMillis; // latest attempt start or resume
+    
+    // Reporting snapshot state, rebuilt after deserialization
+    private transient Set<String> changedSinceSnapshot;
+    private transient QuizSnapshot lastSnapshot;
+    private transient volatile AdaptiveItemIndex itemIndex;
+    private transient volatile ScoreIndex scoreIndex;
+    private transient volatile StudentResultsIndex resultsIndex;
+    private transient volatile Course course;
+    
+    public Quiz(String quizId, String courseId, Teacher createdBy, ZonedDateTime startTime, 
+               Duration duration, int bankVersion, List<Question> questions) {
+        this(quizId, courseId, createdBy, startTime, duration, bankVersion, questions, 0);
+    }
+    
+    // The questions are the versions from the given question bank version and are
+    // shared with the bank, not copied. With adaptiveLength > 0, each student gets
+    // that many questions picked from the pool according to their ability estimate.
+    public Quiz(String quizId, String courseId, Teacher createdBy, ZonedDateTime startTime, 
+               Duration duration, int bankVersion, List<Question> questions, int adaptiveLength) {
         this.quizId = quizId;
         this.courseId = courseId;
         this.createdBy = createdBy;
         this.startTime = startTime;
         this.duration = duration;
-        this.questions = questions;
-        this.attempts = new HashMap<>();
+        this.startMillis = startTime.toInstant().toEpochMilli();
+        this.endMillis = startTime.toInstant().plus(duration).toEpochMilli();
+        this.bankVersion = bankVersion;
+        this.questions = List.copyOf(questions);
+        this.attempts = new ConcurrentHashMap<>();
+        this.adaptiveLength = adaptiveLength;
+        this.changedSinceSnapshot = ConcurrentHashMap.newKeySet();
+    }
+    
+    // Fields missing from older files get the values those quizzes had: a fixed
+    // question set from the first bank version, not archived. Older files also
+    // hold the start time as a LocalDateTime in the default zone and the attempts
+    // in a HashMap.
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        ObjectInputStream.GetField fields = in.readFields();
+        quizId = (String) fields.get("quizId", null);
+        courseId = (String) fields.get("courseId", null);
+        createdBy = (Teacher) fields.get("createdBy", null);
+        Object start = fields.get("startTime", null);
+        startTime = start instanceof LocalDateTime local
+                ? local.atZone(QuizSchedule.getDefaultZone()) : (ZonedDateTime) start;
+        duration = (Duration) fields.get("duration", null);
+        startMillis = startTime.toInstant().toEpochMilli();
+        endMillis = startTime.toInstant().plus(duration).toEpochMilli();
+        bankVersion = fields.get("bankVersion", 1);
+        questions = List.copyOf((List<Question>) fields.get("questions", null));
+        Map<String, QuizAttempt> saved = (Map<String, QuizAttempt>) fields.get("attempts", null);
+        attempts = saved instanceof ConcurrentHashMap ? saved : new ConcurrentHashMap<>(saved);
+        adaptiveLength = fields.get("adaptiveLength", 0);
+        archived = fields.get("archived", false);
+        lastStartMillis = fields.get("lastStartMillis", 0L);
+        changedSinceSnapshot = ConcurrentHashMap.newKeySet();
     }
     
     public String getQuizId() { return quizId; }
     public String getCourseId() { return courseId; }
     public Teacher getCreatedBy() { return createdBy; }
-    public LocalDateTime getStartTime() { return startTime; }
+    public ZonedDateTime getStartTime() { return startTime; }
+    public String getFormattedStartTime() { return QuizSchedule.format(startTime); }
     public Duration getDuration() { return duration; }
+    public int getBankVersion() { return bankVersion; }
     public List<Question> getQuestions() { return questions; }
     
+    public boolean hasQuestion(String questionId) {
+        for (Question question : questions) {
+            if (question.getQuestionId().equals(questionId)) return true;
+        }
+        return false;
+    }
+    public boolean isAdaptive() { return adaptiveLength > 0; }
+    public int getAdaptiveLength() { return adaptiveLength; }
+    
+    // Highest possible score; for adaptive quizzes, the best marks a student could be given
+    public int getMaxScore() {
+        List<Integer> marks = new ArrayList<>();
+        for (Question question : questions) {
+            marks.add(question.getMarks());
+        }
+        if (isAdaptive()) {
+            marks.sort(Comparator.reverseOrder());
+            marks = marks.subList(0, Math.min(adaptiveLength, marks.size()));
+        }
+        int total = 0;
+        for (int mark : marks) {
+            total += mark;
+        }
+        return total;
+    }
+    
+    // Item parameters for adaptive mode, estimated once from the course's past quizzes
+    public AdaptiveItemIndex getItemIndex(Collection<Quiz> history) {
+        AdaptiveItemIndex index = itemIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = itemIndex;
+                if (index == null) {
+                    index = AdaptiveItemIndex.build(questions, history);
+                    itemIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    
+    // Checked on every question, so it compares precomputed instants with the coarse clock
     public boolean isActive() {
-        LocalDateTime now = LocalDateTime.now();
-        return now.isAfter(startTime) && now.isBefore(startTime.plus(duration));
+        long now = QuizSchedule.currentTimeMillis();
+        return now >= startMillis && now < endMillis;
+    }
+    
+    // Over, including the time offline clients get to sync their last answers. Each
+    // attempt has the full duration from its own start, so an attempt started or
+    // resumed late keeps the quiz open past the end of its window.
+    public boolean isClosed() {
+        long lastDeadline = Math.max(endMillis, lastStartMillis + duration.toMillis());
+        return QuizSchedule.currentTimeMillis() >= lastDeadline + AttemptSyncServer.SYNC_GRACE_MILLIS;
+    }
+    
+    // Whether an interrupted attempt may still be resumed after the quiz window has
+    // ended: it has time left and the quiz is not archived yet
+    public boolean canResume(AttemptCheckpointer.Checkpoint checkpoint) {
+        return !archived && checkpoint != null && checkpoint.elapsedMillis() < duration.toMillis();
+    }
+    
+    private synchronized void attemptStarted() {
+        lastStartMillis = Math.max(lastStartMillis, QuizSchedule.currentTimeMillis());
     }
     
-    public void shuffleQuestions() {
-        Collections.shuffle(questions);
+    public boolean isArchived() { return archived; }
+    
+    void linkCourse(Course course) {
+        this.course = course;
+    }
+    
+    // Writes the attempts of a closed quiz to its archive file and drops them from
+    // the heap. Attempts never submitted, including ones only in the checkpoint log
+    // after a crash, are graded first as if auto-submitted, and their checkpoints
+    // are completed. Returns false if the quiz is still open or already archived.
+    synchronized boolean archive(AttemptCheckpointer checkpointer) throws IOException {
+        if (archived || !isClosed()) return false;
+        Course owner = course;
+        for (AttemptCheckpointer.Checkpoint checkpoint : checkpointer.getCheckpoints(courseId, quizId)) {
+            Student student = owner != null ? owner.getEnrolledStudent(checkpoint.studentId()) : null;
+            if (student == null) continue;
+            QuizAttempt attempt = attempts.computeIfAbsent(student.getUserId(), id -> new QuizAttempt(student, this));
+            if (!attempt.isGraded()) {
+                checkpoint.answers().forEach(attempt::recordAnswer);
+            }
+        }
+        List<String> submitted = new ArrayList<>();
+        for (QuizAttempt attempt : attempts.values()) {
+            if (!attempt.isGraded()) {
+                attempt.gradeQuiz();
+                submitted.add(attempt.getStudent().getUserId());
+            }
+        }
+        Path file = QuizArchive.fileFor(this);
+        QuizArchive.write(this, attempts.values(), file);
+        QuizArchive.evict(file);
+        for (String studentId : submitted) {
+            checkpointer.completed(courseId, quizId, studentId);
+        }
+        archived = true;
+        attempts.clear();
+        changedSinceSnapshot.clear();
+        lastSnapshot = null;
+        scoreIndex = null;
+        return true;
+    }
+    
+    private QuizArchive.Archived archivedAttempts() {
+        Course owner = course;
+        return QuizArchive.load(QuizArchive.fileFor(this), courseId, quizId,
+                studentId -> owner != null ? owner.getEnrolledStudent(studentId) : null);
     }
     
     public QuizAttempt attemptQuiz(Student student) {
+        Terminal io = Terminal.get();
         if (!isActive()) {
-            System.out.println("Quiz is not currently active!");
+            io.println("Quiz is not currently active!");
             return null;
         }
         
-        if (attempts.containsKey(student.getUserId())) {
-            System.out.println("You have already attempted this quiz!");
+        QuizAttempt attempt = new QuizAttempt(student, this);
+        if (attempts.putIfAbsent(student.getUserId(), attempt) != null) {
+            io.println("You have already attempted this quiz!");
             return null;
         }
-        
-        QuizAttempt attempt = new QuizAttempt(student, this);
-        attempts.put(student.getUserId(), attempt);
+        attemptStarted();
+        attemptChanged(student.getUserId());
+        return attempt;
+    }
+    
+    // Continues an ungraded attempt after a restart, creating it if it was never saved
+    public QuizAttempt resumeAttempt(Student student) {
+        Terminal io = Terminal.get();
+        QuizAttempt attempt = attempts.computeIfAbsent(student.getUserId(), id -> new QuizAttempt(student, this));
+        if (attempt.isGraded()) {
+            io.println("You have already attempted this quiz!");
+            return null;
+        }
+        attemptStarted();
+        attemptChanged(student.getUserId());
         return attempt;
     }
     
@@ -272,39 +542,188 @@ class Quiz implements Serializable {
     public Map<String, QuizAttempt> getAttempts() {
         return attempts;
     }
+    
+    void attemptChanged(String studentId) {
+        changedSinceSnapshot.add(studentId);
+    }
+    
+    void attemptGraded(QuizAttempt attempt) {
+        getScoreIndex().update(attempt.getStudent(), attempt.getScore());
+        StudentResultsIndex results = resultsIndex;
+        if (results != null) {
+            results.record(attempt);
+        }
+        attemptChanged(attempt.getStudent().getUserId());
+    }
+    
+    // Reports graded attempts to the institution's results index from now on, and
+    // adds the ones graded so far. The index is set before the scan, so an attempt
+    // graded meanwhile is either reported or scanned (recording twice is harmless).
+    void attachResults(StudentResultsIndex results) {
+        resultsIndex = results;
+        if (archived) {
+            // Only the score column is read; answers stay on disk
+            try {
+                QuizArchive.readScores(QuizArchive.fileFor(this), courseId, quizId)
+                        .forEach((studentId, score) -> results.record(this, studentId, score));
+            } catch (IOException e) {
+                Terminal.get().println("Error reading quiz archive: " + e.getMessage());
+            }
+            return;
+        }
+        for (QuizAttempt attempt : attempts.values()) {
+            if (attempt.isGraded()) {
+                results.record(attempt);
+            }
+        }
+    }
+    
+    // Graded scores in rank order, rebuilt from the attempts after deserialization
+    // or read from the archive
+    public ScoreIndex getScoreIndex() {
+        if (archived) return archivedAttempts().scoreIndex();
+        ScoreIndex index = scoreIndex;
+        if (index == null) {
+            synchronized (this) {
+                index = scoreIndex;
+                if (index == null) {
+                    index = new ScoreIndex();
+                    for (QuizAttempt attempt : attempts.values()) {
+                        if (attempt.isGraded()) {
+                            index.update(attempt.getStudent(), attempt.getScore());
+                        }
+                    }
+                    scoreIndex = index;
+                }
+            }
+        }
+        return index;
+    }
+    
+    // Consistent read-only view of the attempts for reporting. Only attempts changed
+    // since the previous snapshot are copied; submissions are never blocked.
+    public synchronized QuizSnapshot snapshot() {
+        if (archived) return archivedAttempts().snapshot();
+        List<String> changed = new ArrayList<>();
+        if (lastSnapshot == null) {
+            lastSnapshot = QuizSnapshot.empty();
+            changedSinceSnapshot.clear();
+            changed.addAll(attempts.keySet());
+        } else {
+            for (Iterator<String> it = changedSinceSnapshot.iterator(); it.hasNext();) {
+                changed.add(it.next());
+                it.remove();
+            }
+        }
+        
+        List<QuizSnapshot.AttemptView> views = new ArrayList<>(changed.size());
+        for (String studentId : changed) {
+            QuizAttempt attempt = attempts.get(studentId);
+            if (attempt != null) {
+                views.add(attempt.toView());
+            }
+        }
+        lastSnapshot = lastSnapshot.withChanges(views);
+        return lastSnapshot;
+    }
 }
 
 // Quiz Attempt class
 class QuizAttempt implements Serializable {
+    private static final long serialVersionUID = -5988152090787383209L;
+    
     private final Student student;
     private final Quiz quiz;
-    final Map<String, String> answers;
-    private int score;
-    private boolean graded;
+    Map<String, String> answers; // only replaced by readObject
+    private final long shuffleSeed;
+    private long syncedSequence;
+    private volatile int score;
+    private volatile boolean graded;
     
     public QuizAttempt(Student student, Quiz quiz) {
         this.student = student;
         this.quiz = quiz;
-        this.answers = new HashMap<>();
+        this.answers = new ConcurrentHashMap<>();
+        this.shuffleSeed = ThreadLocalRandom.current().nextLong();
         this.score = 0;
         this.graded = false;
     }
     
+    // Older files hold the answers in a HashMap
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        if (!(answers instanceof ConcurrentHashMap)) {
+            Map<String, String> saved = answers;
+            answers = new ConcurrentHashMap<>();
+            saved.forEach((questionId, answer) -> {
+                if (answer != null) answers.put(questionId, answer);
+            });
+        }
+    }
+    
+    // This attempt's question order. Shuffles are derived from the attempt's seed
+    // rather than applied to the shared quiz and bank questions, and answers are
+    // always recorded against the stored option order.
+    public List<Question> getQuestionOrder() {
+        List<Question> order = new ArrayList<>(quiz.getQuestions());
+        Collections.shuffle(order, new Random(shuffleSeed));
+        return order;
+    }
+    
+    public int[] getOptionOrder(MCQQuestion question) {
+        List<Integer> order = new ArrayList<>();
+        for (int i = 0; i < question.getOptions().size(); i++) {
+            order.add(i);
+        }
+        Collections.shuffle(order, new Random(shuffleSeed ^ question.getQuestionId().hashCode()));
+        return order.stream().mapToInt(Integer::intValue).toArray();
+    }
+    
     public void recordAnswer(String questionId, String answer) {
         answers.put(questionId, answer);
+        quiz.attemptChanged(student.getUserId());
+    }
+    
+    // Applies a numbered answer change from an offline client at most once; returns
+    // false for a change already applied (a resent batch) or after grading
+    public synchronized boolean applyChange(long sequence, String questionId, String answer) {
+        if (graded || sequence <= syncedSequence) return false;
+        syncedSequence = sequence;
+        if (quiz.hasQuestion(questionId)) {
+            recordAnswer(questionId, answer);
+        }
+        return true;
+    }
+    
+    public synchronized long getSyncedSequence() {
+        return syncedSequence;
     }
     
     public void gradeQuiz() {
         if (graded) return;
         
-        score = 0;
+        score = scoreOf(answers);
+        graded = true;
+        quiz.attemptGraded(this);
+    }
+    
+    private int scoreOf(Map<String, String> answerSheet) {
+        int total = 0;
         for (Question question : quiz.getQuestions()) {
-            String answer = answers.get(question.getQuestionId());
+            String answer = answerSheet.get(question.getQuestionId());
             if (answer != null && question.checkAnswer(answer)) {
-                score += question.getMarks();
+                total += question.getMarks();
             }
         }
-        graded = true;
+        return total;
+    }
+    
+    // Frozen copy for reporting; in-progress attempts are scored without being graded
+    QuizSnapshot.AttemptView toView() {
+        boolean wasGraded = graded;
+        Map<String, String> answerSheet = Map.copyOf(answers);
+        int currentScore = wasGraded ? score : scoreOf(answerSheet);
+        return new QuizSnapshot.AttemptView(student, answerSheet, currentScore, wasGraded);
     }
     
     public int getScore() {
@@ -319,11 +738,15 @@ class QuizAttempt implements Serializable {
 
 // Course class
 class Course implements Serializable {
+    private static final long serialVersionUID = -3717329292976133104L;
+    
     private final String courseId;
     private final String courseName;
     private final Teacher instructor;
     private final List<Student> enrolledStudents;
     private final List<Quiz> quizzes;
+    private transient Map<String, Student> enrolledById;
+    private transient StudentResultsIndex resultsIndex;
     
     public Course(String courseId, String courseName, Teacher instructor) {
         this.courseId = courseId;
@@ -340,13 +763,51 @@ class Course implements Serializable {
     public List<Quiz> getQuizzes() { return quizzes; }
     
     public void enrollStudent(Student student) {
-        if (!enrolledStudents.contains(student)) {
+        if (enrolledById().putIfAbsent(student.getUserId(), student) == null) {
             enrolledStudents.add(student);
         }
     }
     
-    public void addQuiz(Quiz quiz) {
+    public boolean isEnrolled(Student student) {
+        return enrolledById().containsKey(student.getUserId());
+    }
+    
+    public Student getEnrolledStudent(String studentId) {
+        return enrolledById().get(studentId);
+    }
+    
+    // Id lookup for large classes, rebuilt lazily after deserialization
+    private synchronized Map<String, Student> enrolledById() {
+        if (enrolledById == null) {
+            enrolledById = new ConcurrentHashMap<>();
+            for (Student student : enrolledStudents) {
+                enrolledById.put(student.getUserId(), student);
+            }
+        }
+        return enrolledById;
+    }
+    
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+        in.defaultReadObject();
+        for (Quiz quiz : quizzes) {
+            quiz.linkCourse(this);
+        }
+    }
+    
+    public synchronized void addQuiz(Quiz quiz) {
         quizzes.add(quiz);
+        quiz.linkCourse(this);
+        if (resultsIndex != null) {
+            quiz.attachResults(resultsIndex);
+        }
+    }
+    
+    // Set when the course joins a shard; quizzes added later are attached too
+    synchronized void attachResults(StudentResultsIndex results) {
+        resultsIndex = results;
+        for (Quiz quiz : quizzes) {
+            quiz.attachResults(results);
+        }
     }
     
     public Quiz getQuiz(String quizId) {
@@ -361,21 +822,38 @@ class Course implements Serializable {
 
 // Main Examination System
 class ExaminationSystem {
+    private static final int DEFAULT_SHARDS = 4;
+    private static final int RESULTS_PAGE_SIZE = 20;
+    private static final int SEARCH_RESULT_LIMIT = 20;
+    
     private Map<String, User> users;
-    private Map<String, Course> courses;
-    private Map<String, List<Question>> questionBanks;
+    private final ShardRouter shards;
     private User currentUser;
+    private final AttemptCheckpointer checkpointer;
+    private final AttemptSyncServer syncServer;
+    private final Map<String, OfflineQuizClient> offlineClients; // unsent attempts, by student and quiz
+    private final AdmissionControl admission;
+    private boolean loadFailed; // saved data is then left as it is instead of being overwritten
     
     public ExaminationSystem() {
-        this.users = new HashMap<>();
-        this.courses = new HashMap<>();
-        this.questionBanks = new HashMap<>();
-        this.currentUser = null;
+        this("attempt_checkpoints.log");
         
         // Initialize with some sample data
         initializeSampleData();
     }
     
+    // Empty system checkpointing to the given log, e.g. for load tests
+    ExaminationSystem(String checkpointFile) {
+        this.users = new HashMap<>();
+        this.shards = new ShardRouter(Integer.getInteger("exam.shards", DEFAULT_SHARDS));
+        this.currentUser = null;
+        this.checkpointer = new AttemptCheckpointer(checkpointFile);
+        checkpointer.recover();
+        this.admission = new AdmissionControl();
+        this.syncServer = new AttemptSyncServer(this);
+        this.offlineClients = new HashMap<>();
+    }
+    
     private void initializeSampleData() {
         // Create sample teacher
         Teacher teacher = new Teacher("t1", "pass", "Dr. Smith");
@@ -391,226 +869,429 @@ class ExaminationSystem {
         Course course = new Course("OOPT-2002", "Object Oriented Programming Theory", teacher);
         course.enrollStudent(student1);
         course.enrollStudent(student2);
-        courses.put(course.getCourseId(), course);
+        shards.addCourse(course);
         
         // Create sample questions
         List<Question> questions = new ArrayList<>();
         questions.add(new MCQQuestion("q1", "Inheritance", 
             "Which keyword is used for inheritance in Java?", 5, 
-            Arrays.asList("extends", "implements", "inherits", "derives"), 0));
+            new ArrayList<>(Arrays.asList("extends", "implements", "inherits", "derives")), 0));
         questions.add(new TrueFalseQuestion("q2", "Polymorphism", 
             "Method overloading is an example of runtime polymorphism.", 3, false));
-        questionBanks.put(course.getCourseId(), questions);
+        shards.putQuestionBank(course.getCourseId(), questions);
     }
     
     public void login() {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("\nLogin");
-        System.out.print("User ID: ");
-        String userId = scanner.nextLine();
-        System.out.print("Password: ");
-        String password = scanner.nextLine();
-        
-        User user = users.get(userId);
-        if (user != null && user.authenticate(userId, password)) {
+        Terminal io = Terminal.get();
+        io.println("\nLogin");
+        io.print("User ID: ");
+        String userId = io.readLine();
+        io.print("Password: ");
+        String password = io.readLine();
+        
+        if (!admission.admitLogin(userId)) {
+            io.println("Too many login attempts. Please wait a moment and try again!");
+            return;
+        }
+        User user = authenticate(userId, password);
+        if (user != null) {
             currentUser = user;
-            System.out.println("Login successful! Welcome " + user.getName());
+            io.println("Login successful! Welcome " + user.getName());
             user.showMenu(this);
         } else {
-            System.out.println("Invalid credentials!");
+            io.println("Invalid credentials!");
         }
     }
     
+    // The user with these credentials, or null
+    User authenticate(String userId, String password) {
+        User user = users.get(userId);
+        return user != null && user.authenticate(userId, password) ? user : null;
+    }
+    
+    User getUser(String userId) {
+        return users.get(userId);
+    }
+    
+    // Adds a user unless the id is already taken
+    boolean addUser(User user) {
+        return users.putIfAbsent(user.getUserId(), user) == null;
+    }
+    
+    ShardRouter getShards() {
+        return shards;
+    }
+    
+    AttemptCheckpointer getCheckpointer() {
+        return checkpointer;
+    }
+    
+    AttemptSyncServer getSyncServer() {
+        return syncServer;
+    }
+    
+    AdmissionControl getAdmission() {
+        return admission;
+    }
+    
     public void logout() {
+        Terminal io = Terminal.get();
         currentUser = null;
-        System.out.println("Logged out successfully!");
+        io.println("Logged out successfully!");
     }
     
     public void createQuestionBank(Teacher teacher) {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("\nCreate Question Bank");
+        Terminal io = Terminal.get();
+        io.println("\nCreate Question Bank");
         
-        System.out.println("Available Courses:");
-        for (Course course : courses.values()) {
+        io.println("Available Courses:");
+        for (Course course : shards.getCourses()) {
             if (course.getInstructor().equals(teacher)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
+        Course course = shards.getCourse(courseId);
         if (course == null || !course.getInstructor().equals(teacher)) {
-            System.out.println("Invalid course selection!");
+            io.println("Invalid course selection!");
             return;
         }
         
-        List<Question> questions = questionBanks.getOrDefault(courseId, new ArrayList<>());
+        QuestionBank bank = shards.getOrCreateQuestionBank(courseId);
         
         while (true) {
-            System.out.println("\nQuestion Bank for " + course.getCourseName());
-            System.out.println("1. Add MCQ Question");
-            System.out.println("2. Add True/False Question");
-            System.out.println("3. Add Subjective Question");
-            System.out.println("4. View Questions");
-            System.out.println("5. Finish");
+            io.println("\nQuestion Bank for " + course.getCourseName());
+            io.println("1. Add MCQ Question");
+            io.println("2. Add True/False Question");
+            io.println("3. Add Subjective Question");
+            io.println("4. View Questions");
+            io.println("5. Search Questions");
+            io.println("6. Edit Question");
+            io.println("7. Find Duplicates");
+            io.println("8. Finish");
             
-            System.out.print("Enter choice: ");
-            int choice = scanner.nextInt();
-            scanner.nextLine(); // consume newline
+            io.print("Enter choice: ");
+            int choice = io.readChoice();
             
             switch (choice) {
-                case 1 -> addMCQQuestion(scanner, questions);
-                case 2 -> addTrueFalseQuestion(scanner, questions);
-                case 3 -> addSubjectiveQuestion(scanner, questions);
-                case 4 -> viewQuestions(questions);
-                case 5 -> {
-                    questionBanks.put(courseId, questions);
-                    System.out.println("Question bank saved successfully!");
+                case 1 -> addMCQQuestion(io, courseId);
+                case 2 -> addTrueFalseQuestion(io, courseId);
+                case 3 -> addSubjectiveQuestion(io, courseId);
+                case 4 -> viewQuestions(bank.current());
+                case 5 -> searchQuestions(io, courseId);
+                case 6 -> editQuestion(io, courseId, bank);
+                case 7 -> findDuplicateQuestions(io, courseId);
+                case 8 -> {
+                    io.println("Question bank saved successfully!");
                     return;
                 }
-                default -> System.out.println("Invalid choice!");
+                default -> io.println("Invalid choice!");
             }
         }
     }
     
-    private void addMCQQuestion(Scanner scanner, List<Question> questions) {
-        System.out.println("\nAdd MCQ Question");
-        System.out.print("Question ID: ");
-        String questionId = scanner.nextLine();
-        System.out.print("Topic: ");
-        String topic = scanner.nextLine();
-        System.out.print("Question Text: ");
-        String questionText = scanner.nextLine();
-        System.out.print("Marks: ");
-        int marks = scanner.nextInt();
-        scanner.nextLine(); // consume newline
+    private void addMCQQuestion(Terminal io, String courseId) {
+        io.println("\nAdd MCQ Question");
+        io.print("Question ID: ");
+        String questionId = io.readLine();
+        io.print("Topic: ");
+        String topic = io.readLine();
+        io.print("Question Text: ");
+        String questionText = io.readLine();
+        io.print("Marks: ");
+        int marks = io.readInt();
         
         List<String> options = new ArrayList<>();
-        System.out.println("Enter options (enter empty line to finish):");
+        io.println("Enter options (enter empty line to finish):");
         String option;
         int optionNum = 1;
         while (true) {
-            System.out.print("Option " + optionNum + ": ");
-            option = scanner.nextLine();
+            io.print("Option " + optionNum + ": ");
+            option = io.readLine();
             if (option.isEmpty()) break;
             options.add(option);
             optionNum++;
         }
         
-        System.out.print("Correct option number (1-" + options.size() + "): ");
-        int correctOption = scanner.nextInt() - 1;
-        scanner.nextLine(); // consume newline
+        io.print("Correct option number (1-" + options.size() + "): ");
+        int correctOption = io.readInt() - 1;
         
-        questions.add(new MCQQuestion(questionId, topic, questionText, marks, options, correctOption));
-        System.out.println("MCQ Question added successfully!");
+        if (addToBank(io, courseId, new MCQQuestion(questionId, topic, questionText, marks, options, correctOption))) {
+            io.println("MCQ Question added successfully!");
+        }
     }
     
-    private void addTrueFalseQuestion(Scanner scanner, List<Question> questions) {
-        System.out.println("\nAdd True/False Question");
-        System.out.print("Question ID: ");
-        String questionId = scanner.nextLine();
-        System.out.print("Topic: ");
-        String topic = scanner.nextLine();
-        System.out.print("Question Text: ");
-        String questionText = scanner.nextLine();
-        System.out.print("Marks: ");
-        int marks = scanner.nextInt();
-        scanner.nextLine(); // consume newline
-        System.out.print("Is the statement true? (true/false): ");
-        boolean correctAnswer = scanner.nextBoolean();
-        scanner.nextLine(); // consume newline
-        
-        questions.add(new TrueFalseQuestion(questionId, topic, questionText, marks, correctAnswer));
-        System.out.println("True/False Question added successfully!");
+    private void addTrueFalseQuestion(Terminal io, String courseId) {
+        io.println("\nAdd True/False Question");
+        io.print("Question ID: ");
+        String questionId = io.readLine();
+        io.print("Topic: ");
+        String topic = io.readLine();
+        io.print("Question Text: ");
+        String questionText = io.readLine();
+        io.print("Marks: ");
+        int marks = io.readInt();
+        io.print("Is the statement true? (true/false): ");
+        boolean correctAnswer = io.readBoolean();
+        
+        if (addToBank(io, courseId, new TrueFalseQuestion(questionId, topic, questionText, marks, correctAnswer))) {
+            io.println("True/False Question added successfully!");
+        }
     }
     
-   private void addSubjectiveQuestion(Scanner scanner, List<Question> questions) {
-    System.out.println("\nAdd Subjective Question");
-    System.out.print("Question ID: ");
-    String questionId = scanner.nextLine();
-    System.out.print("Topic: ");
-    String topic = scanner.nextLine();
-    System.out.print("Question Text: ");
-    String questionText = scanner.nextLine();
+   private void addSubjectiveQuestion(Terminal io, String courseId) {
+    io.println("\nAdd Subjective Question");
+    io.print("Question ID: ");
+    String questionId = io.readLine();
+    io.print("Topic: ");
+    String topic = io.readLine();
+    io.print("Question Text: ");
+    String questionText = io.readLine();
     
-    System.out.print("Marks: ");
+    io.print("Marks: ");
     int marks = 0;
     try {
-        marks = scanner.nextInt();
-        scanner.nextLine(); // consume newline
+        marks = io.readInt();
     } catch (InputMismatchException e) {
-        System.out.println("Invalid input! Please enter a number for marks.");
-        scanner.nextLine();
+        io.println("Invalid input! Please enter a number for marks.");
         return;
     }
     
-    System.out.print("Model Answer: ");
-    String modelAnswer = scanner.nextLine();
+    io.print("Model Answer: ");
+    String modelAnswer = io.readLine();
     
-    questions.add(new SubjectiveQuestion(questionId, topic, questionText, marks, modelAnswer));
-    System.out.println("Subjective Question added successfully!");
+    if (addToBank(io, courseId, new SubjectiveQuestion(questionId, topic, questionText, marks, modelAnswer))) {
+        io.println("Subjective Question added successfully!");
+    }
 }
     
+    // Checks the bank for an existing id or (near) copy before adding; returns false if not added
+    private boolean addToBank(Terminal io, String courseId, Question question) {
+        BankIntegrityIndex.CheckResult check = shards.getIntegrityIndex(courseId).check(question);
+        if (check.duplicateId()) {
+            io.println("Question ID " + question.getQuestionId() + " already exists in this bank!");
+            return false;
+        }
+        if (!check.isClean()) {
+            if (check.sameTextAs() != null) {
+                io.println("Same question already exists: " + check.sameTextAs());
+            }
+            for (BankIntegrityIndex.Match match : check.nearDuplicates()) {
+                io.println("Similar question exists: " + match.questionId() +
+                         " (" + Math.round(match.similarity() * 100) + "% similar)");
+            }
+            io.print("Add anyway? (y/n): ");
+            if (!io.readLine().trim().equalsIgnoreCase("y")) {
+                io.println("Question not added.");
+                return false;
+            }
+        }
+        shards.addQuestion(courseId, question);
+        return true;
+    }
+    
+    private void findDuplicateQuestions(Terminal io, String courseId) {
+        List<BankIntegrityIndex.DuplicateGroup> groups = shards.getIntegrityIndex(courseId).findDuplicateGroups();
+        if (groups.isEmpty()) {
+            io.println("No duplicate questions found.");
+            return;
+        }
+        
+        // Each group is confirmed on its own; the original is always kept
+        io.println("\n" + groups.size() + " questions have copies.");
+        QuestionBank.Version bank = shards.getQuestionBank(courseId).current();
+        int removed = 0;
+        for (BankIntegrityIndex.DuplicateGroup group : groups) {
+            io.println("\nOriginal " + group.original() + ": " + questionText(bank, group.original()));
+            for (BankIntegrityIndex.Match copy : group.copies()) {
+                io.println("  Copy " + copy.questionId() + " (" + Math.round(copy.similarity() * 100) +
+                         "% similar): " + questionText(bank, copy.questionId()));
+            }
+            io.print("Remove these " + group.copies().size() + " copies? (y/n): ");
+            if (io.readLine().trim().equalsIgnoreCase("y")) {
+                for (BankIntegrityIndex.Match copy : group.copies()) {
+                    shards.removeQuestion(courseId, copy.questionId());
+                    removed++;
+                }
+            }
+        }
+        io.println("\n" + removed + " duplicate questions removed.");
+    }
+    
+    private static String questionText(QuestionBank.Version bank, String questionId) {
+        Question question = bank.find(questionId);
+        return question != null ? question.getQuestionText() : "";
+    }
+    
     private void viewQuestions(List<Question> questions) {
-        System.out.println("\nQuestions in Bank:");
+        Terminal io = Terminal.get();
+        io.println("\nQuestions in Bank:");
         for (Question question : questions) {
-            System.out.println("\nID: " + question.getQuestionId());
-            System.out.println("Topic: " + question.getTopic());
-            System.out.println("Marks: " + question.getMarks());
+            io.println("\nID: " + question.getQuestionId() + " (version " + question.getVersion() + ")");
+            io.println("Topic: " + question.getTopic());
+            io.println("Marks: " + question.getMarks());
             question.displayQuestion();
         }
     }
     
+    private void searchQuestions(Terminal io, String courseId) {
+        io.print("Search (keywords, last one may be partial): ");
+        String query = io.readLine();
+        
+        QuestionSearchIndex index = shards.getSearchIndex(courseId);
+        long start = System.nanoTime();
+        List<Question> results = index.search(query, SEARCH_RESULT_LIMIT);
+        long micros = (System.nanoTime() - start) / 1000;
+        
+        if (results.isEmpty()) {
+            io.println("No matching questions found.");
+            return;
+        }
+        io.println("\n" + results.size() + " matching questions (" + micros + " us):");
+        viewQuestions(results);
+    }
+    
+    // Publishes a new version of the question; quizzes already created keep the old one
+    private void editQuestion(Terminal io, String courseId, QuestionBank bank) {
+        io.print("Question ID to edit: ");
+        Question question = bank.current().find(io.readLine().trim());
+        if (question == null) {
+            io.println("Question not found!");
+            return;
+        }
+        viewQuestions(List.of(question));
+        
+        io.print("New topic (blank to keep): ");
+        String topic = io.readLine();
+        io.print("New question text (blank to keep): ");
+        String questionText = io.readLine();
+        io.print("New marks (blank to keep): ");
+        String marksText = io.readLine().trim();
+        
+        int marks = question.getMarks();
+        if (!marksText.isEmpty()) {
+            try {
+                marks = Integer.parseInt(marksText);
+            } catch (NumberFormatException e) {
+                io.println("Invalid marks!");
+                return;
+            }
+        }
+        
+        Question revised = question.revise(topic.isBlank() ? question.getTopic() : topic,
+                questionText.isBlank() ? question.getQuestionText() : questionText, marks);
+        if (shards.replaceQuestion(courseId, revised)) {
+            io.println("Question " + revised.getQuestionId() + " updated to version " + revised.getVersion() + ".");
+        } else {
+            io.println("Question not found!");
+        }
+    }
+    
     public void createQuiz(Teacher teacher) {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("\nCreate Quiz");
+        Terminal io = Terminal.get();
+        io.println("\nCreate Quiz");
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
             if (course.getInstructor().equals(teacher)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
+        Course course = shards.getCourse(courseId);
         if (course == null || !course.getInstructor().equals(teacher)) {
-            System.out.println("Invalid course selection!");
+            io.println("Invalid course selection!");
             return;
         }
         
-        List<Question> availableQuestions = questionBanks.get(courseId);
+        // The quiz is built from the bank version current now; later edits do not affect it
+        QuestionBank bank = shards.getQuestionBank(courseId);
+        QuestionBank.Version availableQuestions = bank != null ? bank.current() : null;
         if (availableQuestions == null || availableQuestions.isEmpty()) {
-            System.out.println("No questions available in the question bank for this course!");
+            io.println("No questions available in the question bank for this course!");
             return;
         }
         
-        System.out.print("Enter Quiz ID: ");
-        String quizId = scanner.nextLine();
+        io.print("Enter Quiz ID: ");
+        String quizId = io.readLine();
         
-        System.out.print("Enter Quiz Date/Time (yyyy-MM-dd HH:mm): ");
-        String dateTimeStr = scanner.nextLine();
-        LocalDateTime startTime;
+        io.print("Enter Quiz Date/Time (" + QuizSchedule.INPUT_PATTERN + " [zone], default zone " +
+                         QuizSchedule.getDefaultZone() + "): ");
+        String dateTimeStr = io.readLine();
+        ZonedDateTime startTime;
         try {
-            DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
-            startTime = LocalDateTime.parse(dateTimeStr, formatter);
-        } catch (Exception e) {
-            System.out.println("Invalid date/time format!");
+            startTime = QuizSchedule.parseStart(dateTimeStr);
+        } catch (DateTimeException e) {
+            io.println("Invalid date/time format!");
             return;
         }
         
-        System.out.print("Enter Quiz Duration (minutes): ");
-        int durationMinutes = scanner.nextInt();
+        io.print("Enter Quiz Duration (minutes): ");
+        int durationMinutes = io.readInt();
         Duration duration = Duration.ofMinutes(durationMinutes);
-        scanner.nextLine(); // consume newline
+        
+        io.print("Adaptive quiz (questions chosen per student by ability)? (y/n): ");
+        if (io.readLine().trim().equalsIgnoreCase("y")) {
+            createAdaptiveQuiz(io, teacher, course, quizId, startTime, duration, availableQuestions);
+            return;
+        }
         
         // Select questions
         List<Question> quizQuestions = new ArrayList<>();
-        System.out.println("\nSelect Questions for Quiz:");
+        io.print("Find questions by search instead of browsing topics? (y/n): ");
+        if (io.readLine().trim().equalsIgnoreCase("y")) {
+            selectQuestionsBySearch(io, courseId, quizQuestions);
+        } else {
+            selectQuestionsByTopic(io, availableQuestions, quizQuestions);
+        }
+        
+        if (quizQuestions.isEmpty()) {
+            io.println("No questions selected for the quiz!");
+            return;
+        }
+        
+        Quiz quiz = new Quiz(quizId, courseId, teacher, startTime, duration,
+                             availableQuestions.getNumber(), quizQuestions);
+        course.addQuiz(quiz);
+        io.println("Quiz created successfully from question bank version " + quiz.getBankVersion() + "!");
+    }
+    
+    private void selectQuestionsBySearch(Terminal io, String courseId, List<Question> quizQuestions) {
+        QuestionSearchIndex index = shards.getSearchIndex(courseId);
+        while (true) {
+            io.print("\nSearch questions (blank to finish): ");
+            String query = io.readLine();
+            if (query.isBlank()) return;
+            
+            List<Question> results = index.search(query, SEARCH_RESULT_LIMIT);
+            if (results.isEmpty()) {
+                io.println("No matching questions found.");
+                continue;
+            }
+            for (int i = 0; i < results.size(); i++) {
+                Question q = results.get(i);
+                io.println((i+1) + ". [" + q.getTopic() + "] " + q.getQuestionText() +
+                                 " (" + q.getMarks() + " marks)" + (quizQuestions.contains(q) ? " *" : ""));
+            }
+            
+            io.print("Select questions (e.g., 1,3 or 'all'): ");
+            for (Question q : parseSelection(io.readLine(), results)) {
+                if (!quizQuestions.contains(q)) {
+                    quizQuestions.add(q);
+                }
+            }
+            io.println(quizQuestions.size() + " questions selected so far.");
+        }
+    }
+    
+    private void selectQuestionsByTopic(Terminal io, List<Question> availableQuestions, List<Question> quizQuestions) {
+        io.println("\nSelect Questions for Quiz:");
         
         // Group questions by topic
         Map<String, List<Question>> questionsByTopic = new HashMap<>();
@@ -619,80 +1300,250 @@ class ExaminationSystem {
         }
         
         for (String topic : questionsByTopic.keySet()) {
-            System.out.println("\nTopic: " + topic);
+            io.println("\nTopic: " + topic);
             List<Question> topicQuestions = questionsByTopic.get(topic);
             for (int i = 0; i < topicQuestions.size(); i++) {
-                System.out.println((i+1) + ". " + topicQuestions.get(i).getQuestionText() + 
+                io.println((i+1) + ". " + topicQuestions.get(i).getQuestionText() + 
                                  " (" + topicQuestions.get(i).getMarks() + " marks)");
             }
             
-            System.out.print("Select questions from this topic (e.g., 1,3 or 'all'): ");
-            String selection = scanner.nextLine();
-            
-            if (selection.equalsIgnoreCase("all")) {
-                quizQuestions.addAll(topicQuestions);
-            } else {
-                String[] indices = selection.split(",");
-                for (String indexStr : indices) {
-                    try {
-                        int index = Integer.parseInt(indexStr.trim()) - 1;
-                        if (index >= 0 && index < topicQuestions.size()) {
-                            quizQuestions.add(topicQuestions.get(index));
-                        }
-                    } catch (NumberFormatException e) {
-                        // skip invalid entries
-                    }
+            io.print("Select questions from this topic (e.g., 1,3 or 'all'): ");
+            quizQuestions.addAll(parseSelection(io.readLine(), topicQuestions));
+        }
+    }
+    
+    private List<Question> parseSelection(String selection, List<Question> choices) {
+        if (selection.trim().equalsIgnoreCase("all")) {
+            return choices;
+        }
+        List<Question> selected = new ArrayList<>();
+        String[] indices = selection.split(",");
+        for (String indexStr : indices) {
+            try {
+                int index = Integer.parseInt(indexStr.trim()) - 1;
+                if (index >= 0 && index < choices.size()) {
+                    selected.add(choices.get(index));
                 }
+            } catch (NumberFormatException e) {
+                // skip invalid entries
+            }
+        }
+        return selected;
+    }
+    
+    private void createAdaptiveQuiz(Terminal io, Teacher teacher, Course course, String quizId,
+                                    ZonedDateTime startTime, Duration duration,
+                                    QuestionBank.Version availableQuestions) {
+        // The whole auto-gradable bank is the item pool
+        List<Question> pool = new ArrayList<>();
+        for (Question q : availableQuestions) {
+            if (AdaptiveItemIndex.isAdaptive(q)) {
+                pool.add(q);
             }
         }
+        if (pool.isEmpty()) {
+            io.println("No MCQ or True/False questions available for an adaptive quiz!");
+            return;
+        }
         
-        if (quizQuestions.isEmpty()) {
-            System.out.println("No questions selected for the quiz!");
+        io.print("Questions per student (1-" + pool.size() + "): ");
+        int length;
+        try {
+            length = Integer.parseInt(io.readLine().trim());
+        } catch (NumberFormatException e) {
+            io.println("Invalid number of questions!");
+            return;
+        }
+        if (length < 1 || length > pool.size()) {
+            io.println("Invalid number of questions!");
             return;
         }
         
-        Quiz quiz = new Quiz(quizId, courseId, teacher, startTime, duration, quizQuestions);
+        Quiz quiz = new Quiz(quizId, course.getCourseId(), teacher, startTime, duration,
+                             availableQuestions.getNumber(), pool, length);
+        quiz.getItemIndex(course.getQuizzes());
         course.addQuiz(quiz);
-        System.out.println("Quiz created successfully!");
+        io.println("Adaptive quiz created successfully!");
     }
     
     public void attemptQuiz(Student student) {
-        Scanner scanner = new Scanner(System.in);
-        System.out.println("\nAttempt Quiz");
+        Terminal io = Terminal.get();
+        io.println("\nAttempt Quiz");
+        
+        Quiz quiz = chooseQuizToAttempt(io, student);
+        if (quiz == null) return;
+        String courseId = quiz.getCourseId();
+        String quizId = quiz.getQuizId();
+        Course course = shards.getCourse(courseId);
+        
+        AttemptCheckpointer.Checkpoint checkpoint =
+                checkpointer.getCheckpoint(courseId, quizId, student.getUserId());
+        QuizAttempt unsubmitted = quiz.getAttempt(student.getUserId());
+        boolean resuming = checkpoint != null || (unsubmitted != null && !unsubmitted.isGraded());
+        
+        QuizAttempt attempt;
+        if (resuming) {
+            attempt = quiz.resumeAttempt(student);
+        } else {
+            // New starts queue for a slot when a quiz opens and everyone starts at once;
+            // resuming an attempt is never held back
+            AdmissionControl.Decision decision = admission.admitStart(student.getUserId());
+            if (decision != AdmissionControl.Decision.ADMITTED) {
+                io.println(decision.getMessage());
+                return;
+            }
+            try {
+                attempt = quiz.attemptQuiz(student);
+            } finally {
+                admission.finishStart();
+            }
+        }
+        if (attempt == null) return;
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
-            if (course.getEnrolledStudents().contains(student)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+        long elapsedBefore = 0;
+        if (resuming) {
+            if (checkpoint != null) {
+                elapsedBefore = checkpoint.elapsedMillis();
+                restoreAnswers(attempt, checkpoint);
+            } else {
+                // Opened offline and never checkpointed; its time runs from when it was opened
+                elapsedBefore = syncServer.elapsedMillis(quiz, student.getUserId());
+                checkpointer.started(courseId, quizId, student.getUserId());
             }
+            long remaining = Math.max(0, quiz.getDuration().toMillis() - elapsedBefore);
+            io.println("\nResuming Quiz: " + quizId);
+            io.println(attempt.answers.size() + " answers restored. You have " +
+                             Duration.ofMillis(remaining).toMinutes() + " minutes left.");
+        } else {
+            checkpointer.started(courseId, quizId, student.getUserId());
+            io.println("\nStarting Quiz: " + quizId);
+            io.println("You have " + quiz.getDuration().toMinutes() + " minutes to complete the quiz.");
         }
         
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        // Record start time, less the time already spent before a resume
+        Instant startTime = Instant.now().minusMillis(elapsedBefore);
+        
+        if (quiz.isAdaptive()) {
+            answerAdaptiveQuiz(io, course, quiz, attempt, startTime);
+        } else {
+            answerQuestions(io, courseId, quiz, attempt, startTime);
+        }
         
-        Course course = courses.get(courseId);
-        if (course == null || !course.getEnrolledStudents().contains(student)) {
-            System.out.println("Invalid course selection!");
+        attempt.gradeQuiz();
+        checkpointer.completed(courseId, quizId, student.getUserId());
+        io.println("\nQuiz submitted successfully!");
+        io.println("Your score: " + attempt.getScore());
+    }
+    
+    // Takes the quiz through the offline-first client: the quiz is downloaded once and
+    // answers are synced to the server in batches instead of one by one
+    public void attemptQuizOffline(Student student) {
+        Terminal io = Terminal.get();
+        io.println("\nAttempt Quiz (offline-first)");
+        
+        Quiz quiz = chooseQuizToAttempt(io, student);
+        if (quiz == null) return;
+        
+        // A client whose answers could not be sent last time is reused, so they go
+        // out with this attempt
+        String clientKey = student.getUserId() + "\t" + quiz.getCourseId() + "\t" + quiz.getQuizId();
+        OfflineQuizClient client = offlineClients.remove(clientKey);
+        if (client == null) {
+            client = new OfflineQuizClient(syncServer, () -> syncServer.sessionFor(student),
+                    quiz.getCourseId(), quiz.getQuizId());
+        }
+        try {
+            client.connect();
+        } catch (IllegalArgumentException e) {
+            io.println(e.getMessage());
             return;
+        } catch (UncheckedIOException e) {
+            offlineClients.put(clientKey, client);
+            io.println("Could not reach the server. Please try again later.");
+            return;
+        }
+        
+        io.println("\nQuiz " + quiz.getQuizId() + " downloaded. Answers are synced every " +
+                 OfflineQuizClient.BATCH_SIZE + " questions.");
+        for (AttemptTransport.PackagedQuestion packaged : client.getQuestions()) {
+            Question question = packaged.question();
+            if (client.isAnswered(question)) continue;
+            
+            io.println("\nQuestion (" + question.getMarks() + " marks):");
+            if (question instanceof MCQQuestion mcq) {
+                mcq.displayQuestion(packaged.optionOrder());
+            } else {
+                question.displayQuestion();
+            }
+            io.print("Your answer: ");
+            client.answer(packaged, io.readLine());
+            
+            if (System.currentTimeMillis() > client.getDeadlineMillis()) {
+                io.println("\nTime's up! Quiz auto-submitted.");
+                break;
+            }
         }
         
-        System.out.println("\nAvailable Quizzes:");
+        AttemptTransport.SyncAck ack = client.submit();
+        if (ack == null && client.getRefusal() != null) {
+            io.println("\nThe quiz could not be submitted: " + client.getRefusal());
+            return;
+        }
+        if (ack == null) {
+            offlineClients.put(clientKey, client);
+            io.println("\nCould not reach the server, so the quiz was not submitted. " +
+                     client.getPendingCount() + " unsent answers are kept until you attempt this quiz again.");
+            return;
+        }
+        io.println(ack.status() == AttemptTransport.Status.TIME_UP
+                ? "\nTime ran out; the answers received in time were submitted."
+                : "\nQuiz submitted successfully!");
+        io.println("Your score: " + ack.score());
+        io.println("Synced in " + client.getRequestCount() + " requests.");
+    }
+    
+    // Asks for a course and one of its open quizzes; returns null if there is none to attempt
+    private Quiz chooseQuizToAttempt(Terminal io, Student student) {
+        
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
+            if (course.isEnrolled(student)) {
+                io.println(course.getCourseId() + " - " + course.getCourseName());
+            }
+        }
+        
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
+        
+        Course course = shards.getCourse(courseId);
+        if (course == null || !course.isEnrolled(student)) {
+            io.println("Invalid course selection!");
+            return null;
+        }
+        
+        io.println("\nAvailable Quizzes:");
         List<Quiz> availableQuizzes = new ArrayList<>();
         for (Quiz quiz : course.getQuizzes()) {
-            if (quiz.getAttempt(student.getUserId()) == null) {
-                System.out.println(quiz.getQuizId() + " - Starts at: " + quiz.getStartTime() + 
+            QuizAttempt attempt = quiz.getAttempt(student.getUserId());
+            if (checkpointer.getCheckpoint(courseId, quiz.getQuizId(), student.getUserId()) != null
+                    || (attempt != null && !attempt.isGraded())) {
+                io.println(quiz.getQuizId() + " - In progress, can be resumed");
+                availableQuizzes.add(quiz);
+            } else if (!quiz.isArchived() && attempt == null) {
+                // Archived quizzes are closed and no longer hold their attempts
+                io.println(quiz.getQuizId() + " - Starts at: " + quiz.getFormattedStartTime() + 
                                  ", Duration: " + quiz.getDuration().toMinutes() + " minutes");
                 availableQuizzes.add(quiz);
             }
         }
         
         if (availableQuizzes.isEmpty()) {
-            System.out.println("No quizzes available to attempt!");
-            return;
+            io.println("No quizzes available to attempt!");
+            return null;
         }
         
-        System.out.print("Enter Quiz ID to attempt: ");
-        String quizId = scanner.nextLine();
+        io.print("Enter Quiz ID to attempt: ");
+        String quizId = io.readLine();
         
         Quiz quiz = null;
         for (Quiz q : availableQuizzes) {
@@ -703,189 +1554,283 @@ class ExaminationSystem {
         }
         
         if (quiz == null) {
-            System.out.println("Invalid quiz selection!");
-            return;
+            io.println("Invalid quiz selection!");
+            return null;
         }
         
-        if (!quiz.isActive()) {
-            System.out.println("This quiz is not currently active!");
-            return;
+        if (!quiz.isActive() && !syncServer.canContinue(quiz, student.getUserId(),
+                checkpointer.getCheckpoint(courseId, quiz.getQuizId(), student.getUserId()))) {
+            io.println("This quiz is not currently active!");
+            return null;
         }
         
-        QuizAttempt attempt = quiz.attemptQuiz(student);
-        if (attempt == null) return;
-        
-        System.out.println("\nStarting Quiz: " + quizId);
-        System.out.println("You have " + quiz.getDuration().toMinutes() + " minutes to complete the quiz.");
+        return quiz;
+    }
+    
+    private void answerQuestions(Terminal io, String courseId, Quiz quiz, QuizAttempt attempt, Instant startTime) {
+        // Questions and options are shuffled per attempt for security
+        for (Question question : attempt.getQuestionOrder()) {
+            if (attempt.answers.containsKey(question.getQuestionId())) continue;
+            if (!askQuestion(io, courseId, quiz, attempt, question, startTime)) break;
+        }
+    }
+    
+    private void answerAdaptiveQuiz(Terminal io, Course course, Quiz quiz, QuizAttempt attempt, Instant startTime) {
+        AdaptiveItemIndex.Session session = quiz.getItemIndex(course.getQuizzes()).newSession();
         
-        // Shuffle questions and options for security
-        quiz.shuffleQuestions();
+        // Replay answers restored from a checkpoint into the ability estimate
         for (Question question : quiz.getQuestions()) {
-            if (question instanceof MCQQuestion mCQQuestion) {
-                mCQQuestion.shuffleOptions();
+            String answer = attempt.answers.get(question.getQuestionId());
+            if (answer != null) {
+                session.record(question, question.checkAnswer(answer));
             }
         }
         
-        // Record start time
-        Instant startTime = Instant.now();
-        
-        // Display and answer questions
-        for (Question question : quiz.getQuestions()) {
-            System.out.println("\nQuestion (" + question.getMarks() + " marks):");
-            question.displayQuestion();
+        while (session.getAnsweredCount() < quiz.getAdaptiveLength()) {
+            Question question = session.nextQuestion();
+            if (question == null) break;
             
-            System.out.print("Your answer: ");
-            String answer = scanner.nextLine();
-            
-            attempt.recordAnswer(question.getQuestionId(), answer);
-            
-            // Check if time is up
-            if (Instant.now().isAfter(startTime.plus(quiz.getDuration()))) {
-                System.out.println("\nTime's up! Quiz auto-submitted.");
-                break;
-            }
+            boolean inTime = askQuestion(io, course.getCourseId(), quiz, attempt, question, startTime);
+            session.record(question, question.checkAnswer(attempt.answers.get(question.getQuestionId())));
+            if (!inTime) break;
+        }
+        io.printf("Estimated ability: %.2f%n", session.getTheta());
+    }
+    
+    // Shows one question and records the answer; returns false once time is up
+    private boolean askQuestion(Terminal io, String courseId, Quiz quiz, QuizAttempt attempt,
+                                Question question, Instant startTime) {
+        io.println("\nQuestion (" + question.getMarks() + " marks):");
+        int[] optionOrder = null;
+        if (question instanceof MCQQuestion mcq) {
+            optionOrder = attempt.getOptionOrder(mcq);
+            mcq.displayQuestion(optionOrder);
+        } else {
+            question.displayQuestion();
         }
         
-        attempt.gradeQuiz();
-        System.out.println("\nQuiz submitted successfully!");
-        System.out.println("Your score: " + attempt.getScore());
+        io.print("Your answer: ");
+        String answer = io.readLine();
+        if (question instanceof MCQQuestion mcq) {
+            answer = mcq.toStoredAnswer(optionOrder, answer);
+        }
+        
+        attempt.recordAnswer(question.getQuestionId(), answer);
+        checkpointer.answered(courseId, quiz.getQuizId(), attempt.getStudent().getUserId(),
+                Duration.between(startTime, Instant.now()).toMillis(),
+                question.getQuestionId(), answer);
+        
+        // Check if time is up
+        if (Instant.now().isAfter(startTime.plus(quiz.getDuration()))) {
+            io.println("\nTime's up! Quiz auto-submitted.");
+            return false;
+        }
+        return true;
+    }
+    
+    // Answers are recorded in stored option order, so they restore as they are
+    private void restoreAnswers(QuizAttempt attempt, AttemptCheckpointer.Checkpoint checkpoint) {
+        for (Question question : attempt.getQuiz().getQuestions()) {
+            String saved = checkpoint.answers().get(question.getQuestionId());
+            if (saved != null) {
+                attempt.recordAnswer(question.getQuestionId(), saved);
+            }
+        }
     }
     
     public void viewQuizResults(Teacher teacher) {
-        System.out.println("\nView Quiz Results");
+        Terminal io = Terminal.get();
+        io.println("\nView Quiz Results");
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
             if (course.getInstructor().equals(teacher)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
+        Course course = shards.getCourse(courseId);
         if (course == null || !course.getInstructor().equals(teacher)) {
-            System.out.println("Invalid course selection!");
+            io.println("Invalid course selection!");
             return;
         }
         
         if (course.getQuizzes().isEmpty()) {
-            System.out.println("No quizzes available for this course!");
+            io.println("No quizzes available for this course!");
             return;
         }
         
-        System.out.println("\nQuizzes:");
+        io.println("\nQuizzes:");
         for (Quiz quiz : course.getQuizzes()) {
-            System.out.println(quiz.getQuizId() + " - " + quiz.getStartTime());
+            io.println(quiz.getQuizId() + " - " + quiz.getFormattedStartTime());
         }
         
-        System.out.print("Enter Quiz ID: ");
-        String quizId = scanner.nextLine();
+        io.print("Enter Quiz ID: ");
+        String quizId = io.readLine();
         
         Quiz quiz = course.getQuiz(quizId);
         if (quiz == null) {
-            System.out.println("Invalid quiz selection!");
+            io.println("Invalid quiz selection!");
             return;
         }
         
-        System.out.println("\nResults for Quiz: " + quizId);
-        System.out.println("Student\t\tScore");
+        ResultQuery query = chooseResultQuery(io);
+        if (query == null) return;
         
-        Map<String, QuizAttempt> attempts = quiz.getAttempts();
-        for (Student student : course.getEnrolledStudents()) {
-            QuizAttempt attempt = attempts.get(student.getUserId());
-            System.out.println(student.getName() + "\t\t" + (attempt != null ? attempt.getScore() : "Absent"));
+        int page = 0;
+        while (true) {
+            ResultQuery.ResultPage results = query.page(course, quiz, page, RESULTS_PAGE_SIZE);
+            io.println("\nResults for Quiz: " + quizId + " (" + results.totalRows() + " students, page " +
+                     (results.page() + 1) + "/" + results.pageCount() + ")");
+            io.println("Student\t\tScore");
+            for (ResultQuery.ResultRow row : results.rows()) {
+                String score = switch (row.status()) {
+                    case GRADED -> String.valueOf(row.score());
+                    case IN_PROGRESS -> "In progress";
+                    case ABSENT -> "Absent";
+                };
+                io.println(row.student().getName() + "\t\t" + score);
+            }
+            
+            if (results.pageCount() == 1) break;
+            io.print("Enter n (next), p (previous) or q (done): ");
+            String command = io.readLine().trim();
+            if (command.equalsIgnoreCase("n")) {
+                page = results.page() + 1;
+            } else if (command.equalsIgnoreCase("p")) {
+                page = results.page() - 1;
+            } else {
+                break;
+            }
         }
         
         // Save to file
-        saveResultsToFile(course, quiz);
+        saveResultsToFile(course, quiz, quiz.snapshot());
     }
     
-    private void saveResultsToFile(Course course, Quiz quiz) {
+    private ResultQuery chooseResultQuery(Terminal io) {
+        io.println("\nShow:");
+        io.println("1. All Students (by name)");
+        io.println("2. All Students (by score)");
+        io.println("3. Top N");
+        io.println("4. Bottom N");
+        io.println("5. Below Threshold");
+        io.println("6. Absent");
+        io.print("Enter choice: ");
+        int choice = io.readChoice();
+        
+        try {
+            return switch (choice) {
+                case 1 -> new ResultQuery(ResultQuery.Mode.ALL_BY_NAME, 0);
+                case 2 -> new ResultQuery(ResultQuery.Mode.ALL_BY_SCORE, 0);
+                case 3 -> {
+                    io.print("N: ");
+                    yield new ResultQuery(ResultQuery.Mode.TOP, io.readInt());
+                }
+                case 4 -> {
+                    io.print("N: ");
+                    yield new ResultQuery(ResultQuery.Mode.BOTTOM, io.readInt());
+                }
+                case 5 -> {
+                    io.print("Threshold score: ");
+                    yield new ResultQuery(ResultQuery.Mode.BELOW, io.readInt());
+                }
+                case 6 -> new ResultQuery(ResultQuery.Mode.ABSENT, 0);
+                default -> {
+                    io.println("Invalid choice!");
+                    yield null;
+                }
+            };
+        } catch (InputMismatchException e) {
+            io.println("Invalid number!");
+            return null;
+        }
+    }
+    
+    private void saveResultsToFile(Course course, Quiz quiz, QuizSnapshot snapshot) {
+        Terminal io = Terminal.get();
         String filename = "results_" + course.getCourseId() + "_" + quiz.getQuizId() + ".txt";
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("Results for " + course.getCourseName() + " - Quiz: " + quiz.getQuizId());
             writer.println("Date: " + LocalDate.now());
             writer.println("\nStudent\t\tScore");
             
-            Map<String, QuizAttempt> attempts = quiz.getAttempts();
             for (Student student : course.getEnrolledStudents()) {
-                QuizAttempt attempt = attempts.get(student.getUserId());
-                writer.println(student.getName() + "\t\t" + (attempt != null ? attempt.getScore() : "Absent"));
+                QuizSnapshot.AttemptView attempt = snapshot.get(student.getUserId());
+                writer.println(student.getName() + "\t\t" + (attempt != null ? attempt.score() : "Absent"));
             }
             
-            System.out.println("Results saved to file: " + filename);
+            io.println("Results saved to file: " + filename);
         } catch (IOException e) {
-            System.out.println("Error saving results to file!");
+            io.println("Error saving results to file!");
         }
     }
     
     public void viewAnalytics(Teacher teacher) {
-        System.out.println("\nView Quiz Analytics");
+        Terminal io = Terminal.get();
+        io.println("\nView Quiz Analytics");
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
             if (course.getInstructor().equals(teacher)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
+        Course course = shards.getCourse(courseId);
         if (course == null || !course.getInstructor().equals(teacher)) {
-            System.out.println("Invalid course selection!");
+            io.println("Invalid course selection!");
             return;
         }
         
         if (course.getQuizzes().isEmpty()) {
-            System.out.println("No quizzes available for this course!");
+            io.println("No quizzes available for this course!");
             return;
         }
         
-        System.out.println("\nQuizzes:");
+        io.println("\nQuizzes:");
         for (Quiz quiz : course.getQuizzes()) {
-            System.out.println(quiz.getQuizId() + " - " + quiz.getStartTime());
+            io.println(quiz.getQuizId() + " - " + quiz.getFormattedStartTime());
         }
         
-        System.out.print("Enter Quiz ID: ");
-        String quizId = scanner.nextLine();
+        io.print("Enter Quiz ID: ");
+        String quizId = io.readLine();
         
         Quiz quiz = course.getQuiz(quizId);
         if (quiz == null) {
-            System.out.println("Invalid quiz selection!");
+            io.println("Invalid quiz selection!");
             return;
         }
         
-        System.out.println("\nAnalytics for Quiz: " + quizId);
+        io.println("\nAnalytics for Quiz: " + quizId);
         
-        Map<String, QuizAttempt> attempts = quiz.getAttempts();
+        QuizSnapshot snapshot = quiz.snapshot();
         int totalStudents = course.getEnrolledStudents().size();
-        int attempted = attempts.size();
+        int attempted = snapshot.size();
         
-        System.out.println("Participation: " + attempted + "/" + totalStudents + " (" + 
+        io.println("Participation: " + attempted + "/" + totalStudents + " (" + 
                          (attempted * 100 / totalStudents) + "%)");
         
-        System.out.println("\nQuestion-wise Performance:");
+        io.println("\nQuestion-wise Performance:");
         for (Question question : quiz.getQuestions()) {
             int correct = 0;
-            for (QuizAttempt attempt : attempts.values()) {
-                String answer;
-                answer = attempt.getQuiz().getAttempt(attempt.getStudent().getUserId())
-                        .answers.get(question.getQuestionId());
+            for (QuizSnapshot.AttemptView attempt : snapshot.attempts()) {
+                String answer = attempt.answers().get(question.getQuestionId());
                 if (answer != null && question.checkAnswer(answer)) {
                     correct++;
                 }
             }
             
             int percentage = attempted > 0 ? (correct * 100 / attempted) : 0;
-            System.out.println("\nQuestion: " + question.getQuestionText());
-            System.out.println("Correct: " + correct + "/" + attempted + " (" + percentage + "%)");
-            System.out.println(createBarChart(percentage));
+            io.println("\nQuestion: " + question.getQuestionText());
+            io.println("Correct: " + correct + "/" + attempted + " (" + percentage + "%)");
+            io.println(createBarChart(percentage));
         }
     }
     
@@ -899,161 +1844,504 @@ class ExaminationSystem {
     }
     
     public void viewAttendance(Teacher teacher) {
-        System.out.println("\nView Quiz Attendance");
+        Terminal io = Terminal.get();
+        io.println("\nView Quiz Attendance");
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
             if (course.getInstructor().equals(teacher)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
+        Course course = shards.getCourse(courseId);
         if (course == null || !course.getInstructor().equals(teacher)) {
-            System.out.println("Invalid course selection!");
+            io.println("Invalid course selection!");
             return;
         }
         
         if (course.getQuizzes().isEmpty()) {
-            System.out.println("No quizzes available for this course!");
+            io.println("No quizzes available for this course!");
             return;
         }
         
-        System.out.println("\nQuizzes:");
+        io.println("\nQuizzes:");
         for (Quiz quiz : course.getQuizzes()) {
-            System.out.println(quiz.getQuizId() + " - " + quiz.getStartTime());
+            io.println(quiz.getQuizId() + " - " + quiz.getFormattedStartTime());
         }
         
-        System.out.print("Enter Quiz ID: ");
-        String quizId = scanner.nextLine();
+        io.print("Enter Quiz ID: ");
+        String quizId = io.readLine();
         
         Quiz quiz = course.getQuiz(quizId);
         if (quiz == null) {
-            System.out.println("Invalid quiz selection!");
+            io.println("Invalid quiz selection!");
             return;
         }
         
-        System.out.println("\nAttendance for Quiz: " + quizId);
-        System.out.println("Student\t\tStatus");
+        io.println("\nAttendance for Quiz: " + quizId);
+        io.println("Student\t\tStatus");
         
-        Map<String, QuizAttempt> attempts = quiz.getAttempts();
+        QuizSnapshot snapshot = quiz.snapshot();
         for (Student student : course.getEnrolledStudents()) {
-            System.out.println(student.getName() + "\t\t" + 
-                             (attempts.containsKey(student.getUserId()) ? "Present" : "Absent"));
+            io.println(student.getName() + "\t\t" + 
+                             (snapshot.contains(student.getUserId()) ? "Present" : "Absent"));
         }
         
         // Save to file
-        saveAttendanceToFile(course, quiz);
+        saveAttendanceToFile(course, quiz, snapshot);
     }
     
-    private void saveAttendanceToFile(Course course, Quiz quiz) {
+    private void saveAttendanceToFile(Course course, Quiz quiz, QuizSnapshot snapshot) {
+        Terminal io = Terminal.get();
         String filename = "attendance_" + course.getCourseId() + "_" + quiz.getQuizId() + ".txt";
         try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
             writer.println("Attendance for " + course.getCourseName() + " - Quiz: " + quiz.getQuizId());
             writer.println("Date: " + LocalDate.now());
             writer.println("\nStudent\t\tStatus");
             
-            Map<String, QuizAttempt> attempts = quiz.getAttempts();
             for (Student student : course.getEnrolledStudents()) {
                 writer.println(student.getName() + "\t\t" + 
-                             (attempts.containsKey(student.getUserId()) ? "Present" : "Absent"));
+                             (snapshot.contains(student.getUserId()) ? "Present" : "Absent"));
             }
             
-            System.out.println("Attendance saved to file: " + filename);
+            io.println("Attendance saved to file: " + filename);
         } catch (IOException e) {
-            System.out.println("Error saving attendance to file!");
+            io.println("Error saving attendance to file!");
         }
     }
     
-    public void viewStudentResults(Student student) {
-        System.out.println("\nYour Quiz Results");
+    public void viewIntegrityReport(Teacher teacher) {
+        Terminal io = Terminal.get();
+        io.println("\nAnswer Similarity Report");
         
-        System.out.println("Your Courses:");
-        for (Course course : courses.values()) {
-            if (course.getEnrolledStudents().contains(student)) {
-                System.out.println(course.getCourseId() + " - " + course.getCourseName());
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
+            if (course.getInstructor().equals(teacher)) {
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        Scanner scanner = new Scanner(System.in);
-        System.out.print("Enter Course ID: ");
-        String courseId = scanner.nextLine();
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
         
-        Course course = courses.get(courseId);
-        if (course == null || !course.getEnrolledStudents().contains(student)) {
-            System.out.println("Invalid course selection!");
+        Course course = shards.getCourse(courseId);
+        if (course == null || !course.getInstructor().equals(teacher)) {
+            io.println("Invalid course selection!");
             return;
         }
         
-        System.out.println("\nYour Quiz Attempts:");
-        boolean hasResults = false;
+        if (course.getQuizzes().isEmpty()) {
+            io.println("No quizzes available for this course!");
+            return;
+        }
+        
+        io.println("\nQuizzes:");
         for (Quiz quiz : course.getQuizzes()) {
-            QuizAttempt attempt = quiz.getAttempt(student.getUserId());
-            if (attempt != null) {
-                System.out.println("Quiz: " + quiz.getQuizId() + ", Score: " + attempt.getScore());
-                hasResults = true;
+            io.println(quiz.getQuizId() + " - " + quiz.getFormattedStartTime());
+        }
+        
+        io.print("Enter Quiz ID: ");
+        String quizId = io.readLine();
+        
+        Quiz quiz = course.getQuiz(quizId);
+        if (quiz == null) {
+            io.println("Invalid quiz selection!");
+            return;
+        }
+        
+        QuizSnapshot snapshot = quiz.snapshot();
+        long started = System.nanoTime();
+        List<CollusionDetector.SuspiciousPair> pairs = new CollusionDetector().detect(quiz, snapshot);
+        long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+        
+        io.println("\nAnalyzed " + snapshot.size() + " attempts in " + elapsedMillis + " ms");
+        if (pairs.isEmpty()) {
+            io.println("No suspicious answer patterns found.");
+            return;
+        }
+        
+        io.println("Student 1\t\tStudent 2\t\tShared Wrong\tSimilarity");
+        for (CollusionDetector.SuspiciousPair pair : pairs) {
+            io.println(pair.first().getName() + "\t\t" + pair.second().getName() + "\t\t" +
+                             pair.sharedWrong() + "\t\t" + Math.round(pair.similarity() * 100) + "%");
+        }
+        
+        // Save to file
+        saveIntegrityReportToFile(course, quiz, pairs);
+    }
+    
+    private void saveIntegrityReportToFile(Course course, Quiz quiz, List<CollusionDetector.SuspiciousPair> pairs) {
+        Terminal io = Terminal.get();
+        String filename = "integrity_" + course.getCourseId() + "_" + quiz.getQuizId() + ".txt";
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println("Answer Similarity Report for " + course.getCourseName() + " - Quiz: " + quiz.getQuizId());
+            writer.println("Date: " + LocalDate.now());
+            writer.println("\nStudent 1\tStudent 2\tShared Wrong\tIdentical\tSimilarity");
+            
+            for (CollusionDetector.SuspiciousPair pair : pairs) {
+                writer.println(pair.first().getUserId() + "\t" + pair.second().getUserId() + "\t" +
+                             pair.sharedWrong() + "\t" + pair.identicalAnswers() + "\t" +
+                             Math.round(pair.similarity() * 100) + "%");
+            }
+            
+            io.println("Report saved to file: " + filename);
+        } catch (IOException e) {
+            io.println("Error saving report to file!");
+        }
+    }
+    
+    public void viewGradeCurve(Teacher teacher) {
+        Terminal io = Terminal.get();
+        io.println("\nGrade Curve");
+        
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
+            if (course.getInstructor().equals(teacher)) {
+                io.println(course.getCourseId() + " - " + course.getCourseName());
             }
         }
         
-        if (!hasResults) {
-            System.out.println("No quiz results available!");
+        io.print("Enter Course ID: ");
+        String courseId = io.readLine();
+        
+        Course course = shards.getCourse(courseId);
+        if (course == null || !course.getInstructor().equals(teacher)) {
+            io.println("Invalid course selection!");
+            return;
+        }
+        
+        if (course.getQuizzes().isEmpty()) {
+            io.println("No quizzes available for this course!");
+            return;
+        }
+        
+        io.println("\nQuizzes:");
+        for (Quiz quiz : course.getQuizzes()) {
+            io.println(quiz.getQuizId() + " - " + quiz.getFormattedStartTime());
+        }
+        
+        io.print("Enter Quiz ID (or 'all' for the whole course): ");
+        String quizId = io.readLine();
+        
+        Quiz quiz = null;
+        if (!quizId.equalsIgnoreCase("all")) {
+            quiz = course.getQuiz(quizId);
+            if (quiz == null) {
+                io.println("Invalid quiz selection!");
+                return;
+            }
+        }
+        
+        io.println("\nCurving Policy:");
+        io.println("1. Absolute Scale (90/80/70/60)");
+        io.println("2. Scaled to Top Score");
+        io.println("3. Percentile Curve (top 10% A, next 20% B, middle 40% C, next 20% D)");
+        io.print("Enter choice: ");
+        CurvePolicy policy = switch (io.readChoice()) {
+            case 1 -> new AbsoluteCurve();
+            case 2 -> new TopScaledCurve();
+            case 3 -> new PercentileCurve();
+            default -> null;
+        };
+        if (policy == null) {
+            io.println("Invalid choice!");
+            return;
+        }
+        
+        GradeCurveService service = new GradeCurveService();
+        GradeCurveService.Report report = quiz != null ? service.forQuiz(quiz, policy) : service.forCourse(course, policy);
+        String title = quiz != null ? "Quiz: " + quiz.getQuizId() : "Course: " + course.getCourseId();
+        
+        io.println("\n" + policy.getName() + " for " + title + " (" + report.standings().size() + " graded students)");
+        io.printf("25th percentile: %.1f%%, Median: %.1f%%, 75th percentile: %.1f%%, 90th percentile: %.1f%%%n",
+                report.p25(), report.median(), report.p75(), report.p90());
+        io.println("\nGrade\tStudents");
+        for (Map.Entry<String, Integer> entry : report.distribution().entrySet()) {
+            io.println(entry.getKey() + "\t" + entry.getValue() + "\t" + createBarChart(
+                    entry.getValue() * 100 / Math.max(1, report.standings().size())));
+        }
+        
+        // Save to file
+        String filename = "grades_" + course.getCourseId() + (quiz != null ? "_" + quiz.getQuizId() : "") + ".txt";
+        try (PrintWriter writer = new PrintWriter(new FileWriter(filename))) {
+            writer.println(policy.getName() + " for " + course.getCourseName() + " - " + title);
+            writer.println("Date: " + LocalDate.now());
+            writer.println("\nStudent\t\tPercentage\tPercentile\tGrade");
+            for (GradeCurveService.Standing standing : report.standings()) {
+                writer.printf("%s\t\t%.1f%%\t\t%.1f\t\t%s%n", standing.student().getName(),
+                        standing.percentage(), standing.percentileRank(), standing.grade());
+            }
+            io.println("Grades saved to file: " + filename);
+        } catch (IOException e) {
+            io.println("Error saving grades to file!");
         }
     }
     
+    public void viewStudentResults(Student student) {
+        Terminal io = Terminal.get();
+        io.println("\nYour Quiz Results");
+        
+        io.println("Your Courses:");
+        for (Course course : shards.getCourses()) {
+            if (course.isEnrolled(student)) {
+                io.println(course.getCourseId() + " - " + course.getCourseName());
+            }
+        }
+        
+        io.print("Enter Course ID (or 'all' for your transcript): ");
+        String courseId = io.readLine();
+        
+        // Results come from the institution-wide index, not from each quiz
+        StudentResultsIndex results = shards.getResultsIndex();
+        if (courseId.equalsIgnoreCase("all")) {
+            List<StudentResultsIndex.Result> transcript = results.resultsFor(student.getUserId());
+            if (transcript.isEmpty()) {
+                io.println("No quiz results available!");
+                return;
+            }
+            io.println("\nYour Transcript:");
+            transcriptLines(transcript).forEach(io::println);
+            return;
+        }
+        
+        Course course = shards.getCourse(courseId);
+        if (course == null || !course.isEnrolled(student)) {
+            io.println("Invalid course selection!");
+            return;
+        }
+        
+        io.println("\nYour Quiz Attempts:");
+        List<StudentResultsIndex.Result> courseResults = results.resultsFor(student.getUserId(), courseId);
+        for (StudentResultsIndex.Result result : courseResults) {
+            io.println("Quiz: " + result.quizId() + ", Score: " + result.score());
+        }
+        
+        if (courseResults.isEmpty()) {
+            io.println("No quiz results available!");
+        }
+    }
+    
+    // One line per graded quiz, oldest first, and the overall total
+    private List<String> transcriptLines(List<StudentResultsIndex.Result> transcript) {
+        List<String> lines = new ArrayList<>();
+        int score = 0;
+        int maxScore = 0;
+        for (StudentResultsIndex.Result result : transcript) {
+            lines.add(String.format("%-12s %-10s %-24s %d/%d (%.1f%%)", result.courseId(), result.quizId(),
+                    QuizSchedule.format(result.startTime()), result.score(), result.maxScore(), result.percentage()));
+            score += result.score();
+            maxScore += result.maxScore();
+        }
+        lines.add(String.format("Total: %d/%d (%.1f%%)", score, maxScore, maxScore > 0 ? score * 100.0 / maxScore : 0));
+        return lines;
+    }
+    
+    // Writes every student's transcript to one file, a student at a time, so the
+    // export never holds more than one transcript in memory
+    private void exportTranscripts(String filename) {
+        Terminal io = Terminal.get();
+        StudentResultsIndex results = shards.getResultsIndex();
+        long start = System.nanoTime();
+        int students = 0;
+        try (PrintWriter writer = new PrintWriter(new BufferedWriter(new FileWriter(filename)))) {
+            writer.println("Transcripts - " + LocalDateTime.now().withNano(0));
+            for (String studentId : results.getStudentIds()) {
+                List<StudentResultsIndex.Result> transcript = results.resultsFor(studentId);
+                if (transcript.isEmpty()) continue;
+                User user = users.get(studentId);
+                writer.println();
+                writer.println("Student: " + studentId + (user != null ? " - " + user.getName() : ""));
+                transcriptLines(transcript).forEach(writer::println);
+                students++;
+            }
+            if (writer.checkError()) {
+                io.println("Error saving transcripts!");
+                return;
+            }
+        } catch (IOException e) {
+            io.println("Error saving transcripts!");
+            return;
+        }
+        io.println("Exported transcripts of " + students + " students to " + filename + " in " +
+                 (System.nanoTime() - start) / 1_000_000 + " ms");
+    }
+    
     public void saveData() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(new FileOutputStream("system_data.ser"))) {
-            oos.writeObject(users);
-            oos.writeObject(courses);
-            oos.writeObject(questionBanks);
-            System.out.println("System data saved successfully!");
+        Terminal io = Terminal.get();
+        if (loadFailed) {
+            io.println("System data was not saved, because the saved data could not be loaded.");
+            return;
+        }
+        // Closed quizzes move their attempts to the archive instead of being saved again
+        int archived = shards.archiveClosedQuizzes(checkpointer);
+        if (archived > 0) {
+            io.println("Archived " + archived + " closed quizzes.");
+        }
+        syncServer.expireSessions();
+        
+        // Courses and question banks are saved per shard, before system_data.ser:
+        // a file from before sharding still holds the only copy of the courses
+        int failed = shards.saveAll();
+        if (failed > 0) {
+            io.println("Error saving " + failed + " of " + shards.getShardCount() + " shards!");
+            return;
+        }
+        
+        // Written next to the old file and moved over it, so a crash keeps the old copy
+        Path temp = Path.of("system_data.ser.tmp");
+        try {
+            try (ObjectOutputStream oos = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                oos.writeObject(users);
+            }
+            Files.move(temp, Path.of("system_data.ser"), StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
         } catch (IOException e) {
-            System.out.println("Error saving system data!");
+            io.println("Error saving system data!");
+            return;
         }
+        io.println("System data saved successfully!");
     }
     
     @SuppressWarnings("unchecked")
     public void loadData() {
+        Terminal io = Terminal.get();
         try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream("system_data.ser"))) {
             users = (Map<String, User>) ois.readObject();
-            courses = (Map<String, Course>) ois.readObject();
-            questionBanks = (Map<String, List<Question>>) ois.readObject();
-            System.out.println("System data loaded successfully!");
+            // Saved courses replace the sample ones
+            shards.clear();
+            try {
+                // Files written before sharding also hold courses and question banks
+                Map<String, Course> legacyCourses = (Map<String, Course>) ois.readObject();
+                Map<String, List<Question>> legacyBanks = (Map<String, List<Question>>) ois.readObject();
+                legacyCourses.values().forEach(shards::addCourse);
+                legacyBanks.forEach(shards::putQuestionBank);
+            } catch (EOFException e) {
+                int loaded = shards.loadAll();
+                io.println("Loaded " + loaded + " of " + shards.getShardCount() + " shards.");
+            }
+            io.println("System data loaded successfully!");
         } catch (FileNotFoundException e) {
-            System.out.println("No saved data found. Starting with sample data.");
-        } catch (IOException | ClassNotFoundException e) {
-            System.out.println("Error loading system data!");
+            io.println("No saved data found. Starting with sample data.");
+        } catch (IOException | ClassNotFoundException | ClassCastException e) {
+            // ClassCastException: a saved field whose type has changed since
+            loadFailed = true;
+            io.println("Error loading system data! " + e.getMessage());
+            io.println("The saved data will not be overwritten in this session.");
+        }
+        
+        // Checkpoints are only checked against data that loaded; otherwise they are kept
+        if (!loadFailed) {
+            int purged = checkpointer.purge(this::isResolvable);
+            if (purged > 0) {
+                io.println("Discarded " + purged + " checkpoints of quiz attempts that no longer exist.");
+            }
+        }
+        if (checkpointer.getRecoveredCount() > 0) {
+            io.println(checkpointer.getRecoveredCount() + " interrupted quiz attempts can be resumed.");
+        }
+    }
+    
+    // Whether a recovered checkpoint still belongs to an unsubmitted attempt: its course,
+    // quiz and student exist, the quiz is not archived and the attempt was not graded
+    private boolean isResolvable(AttemptCheckpointer.Checkpoint checkpoint) {
+        Course course = shards.getCourse(checkpoint.courseId());
+        Quiz quiz = course != null ? course.getQuiz(checkpoint.quizId()) : null;
+        if (quiz == null || quiz.isArchived() || course.getEnrolledStudent(checkpoint.studentId()) == null) {
+            return false;
+        }
+        QuizAttempt attempt = quiz.getAttempt(checkpoint.studentId());
+        return attempt == null || !attempt.isGraded();
+    }
+    
+    // Runs "import <kind> <file> [<kind> <file> ...]" from the command line
+    private void runImports(String[] args) {
+        Terminal io = Terminal.get();
+        BulkImporter importer = new BulkImporter(this);
+        for (int i = 1; i + 1 < args.length; i += 2) {
+            try {
+                BulkImporter.ImportReport report = importer.importFile(args[i], Path.of(args[i + 1]));
+                io.println("Imported " + report.kind() + ": " + report.imported() + "/" + report.rows() +
+                                 " rows (" + report.duplicates() + " duplicates, " + report.invalid() + " invalid) in " +
+                                 report.elapsedMillis() + " ms, " + Math.round(report.rowsPerSecond()) + " rows/sec");
+                report.errors().forEach(io::println);
+            } catch (IOException e) {
+                io.println("Error reading import file: " + args[i + 1]);
+            }
         }
+        saveData();
+    }
+    
+    private void shutdown() {
+        Terminal io = Terminal.get();
+        checkpointer.close();
+        saveData();
+        io.println("Goodbye!");
+        io.flush();
     }
     
     public static void main(String[] args) {
+        // "replay <script> [<transcript>]" drives the menus from a file of input lines
+        if (args.length >= 2 && args[0].equals("replay")) {
+            try {
+                Terminal.useReplay(Path.of(args[1]), args.length >= 3 ? Path.of(args[2]) : null);
+            } catch (IOException e) {
+                System.err.println("Error opening replay script: " + args[1]);
+                return;
+            }
+        }
+        
+        Terminal io = Terminal.get();
+        
+        // "loadtest [key=value ...]" simulates an exam day against an empty system
+        if (args.length >= 1 && args[0].equals("loadtest")) {
+            LoadGenerator.run(Arrays.copyOfRange(args, 1, args.length));
+            io.flush();
+            return;
+        }
+        
         ExaminationSystem system = new ExaminationSystem();
         system.loadData();
         
-        Scanner scanner = new Scanner(System.in);
-        while (true) {
-            System.out.println("\nExamination System");
-            System.out.println("1. Login");
-            System.out.println("2. Exit");
-            
-            System.out.print("Enter choice: ");
-            int choice = scanner.nextInt();
-            scanner.nextLine(); // consume newline
-            
-            switch (choice) {
-                case 1:
-                    system.login();
-                    break;
-                case 2:
-                    system.saveData();
-                    System.out.println("Goodbye!");
-                    System.exit(0);
-                default:
-                    System.out.println("Invalid choice!");
+        if (args.length >= 3 && args[0].equals("import")) {
+            system.runImports(args);
+            io.flush();
+            return;
+        }
+        
+        // "transcripts [<file>]" exports every student's transcript
+        if (args.length >= 1 && args[0].equals("transcripts")) {
+            system.exportTranscripts(args.length >= 2 ? args[1] : "transcripts.txt");
+            io.flush();
+            return;
+        }
+        
+        try {
+            while (true) {
+                io.println("\nExamination System");
+                io.println("1. Login");
+                io.println("2. Exit");
+                
+                io.print("Enter choice: ");
+                int choice = io.readChoice();
+                
+                switch (choice) {
+                    case 1:
+                        system.login();
+                        break;
+                    case 2:
+                        system.shutdown();
+                        System.exit(0);
+                    default:
+                        io.println("Invalid choice!");
+                }
             }
+        } catch (NoSuchElementException e) {
+            // End of input, e.g. of a replay script, exits like choosing Exit
+            system.shutdown();
         }
     }
 }
\ No newline at end of file
@@ -0,0 +1,88 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Percentile ranks and curved letter grades for a quiz or a whole course.
+// Quiz ranks come straight from the histogram kept in the quiz's ScoreIndex;
+// course ranks bin each student's overall percentage at 0.1% resolution.
+class GradeCurveService {
+    private static final int COURSE_BINS_PER_PERCENT = 10;
+
+    record Standing(Student student, double percentage, double percentileRank, String grade) {
+    }
+
+    record Report(List<Standing> standings, Map<String, Integer> distribution,
+                  double p25, double median, double p75, double p90) {
+    }
+
+    public Report forQuiz(Quiz quiz, CurvePolicy policy) {
+        ScoreIndex index = quiz.getScoreIndex();
+        ScoreHistogram histogram = index.getHistogram();
+        double[] ranks = histogram.percentileRanks();
+        double maxScore = Math.max(1, quiz.getMaxScore());
+        double top = histogram.maxValue() * 100.0 / maxScore;
+
+        List<Standing> standings = new ArrayList<>(index.size());
+        for (Iterator<ScoreIndex.Entry> it = index.highestFirst(); it.hasNext();) {
+            ScoreIndex.Entry entry = it.next();
+            double percentage = entry.score() * 100.0 / maxScore;
+            double rank = entry.score() < ranks.length ? ranks[entry.score()] : 100.0;
+            standings.add(new Standing(entry.student(), percentage, rank, policy.gradeFor(percentage, rank, top)));
+        }
+        return report(standings, histogram, 100.0 / maxScore);
+    }
+
+    public Report forCourse(Course course, CurvePolicy policy) {
+        // Overall percentage per student across all graded quizzes of the course
+        Map<String, double[]> totals = new LinkedHashMap<>(); // studentId -> {score, maxScore}
+        for (Quiz quiz : course.getQuizzes()) {
+            ScoreIndex index = quiz.getScoreIndex();
+            int maxScore = quiz.getMaxScore();
+            for (Student student : course.getEnrolledStudents()) {
+                Integer score = index.scoreOf(student.getUserId());
+                if (score == null) continue;
+                double[] total = totals.computeIfAbsent(student.getUserId(), id -> new double[2]);
+                total[0] += score;
+                total[1] += maxScore;
+            }
+        }
+
+        ScoreHistogram histogram = new ScoreHistogram();
+        Map<String, Double> percentages = new HashMap<>();
+        for (Map.Entry<String, double[]> entry : totals.entrySet()) {
+            double[] total = entry.getValue();
+            double percentage = total[1] > 0 ? total[0] * 100.0 / total[1] : 0;
+            percentages.put(entry.getKey(), percentage);
+            histogram.add(bin(percentage));
+        }
+        double[] ranks = histogram.percentileRanks();
+        double top = histogram.maxValue() / (double) COURSE_BINS_PER_PERCENT;
+
+        List<Standing> standings = new ArrayList<>(percentages.size());
+        for (Student student : course.getEnrolledStudents()) {
+            Double percentage = percentages.get(student.getUserId());
+            if (percentage == null) continue;
+            double rank = ranks[bin(percentage)];
+            standings.add(new Standing(student, percentage, rank, policy.gradeFor(percentage, rank, top)));
+        }
+        standings.sort(Comparator.comparingDouble(Standing::percentage).reversed());
+        return report(standings, histogram, 1.0 / COURSE_BINS_PER_PERCENT);
+    }
+
+    private static int bin(double percentage) {
+        return (int) Math.round(Math.max(0, percentage) * COURSE_BINS_PER_PERCENT);
+    }
+
+    // binToPercent converts a histogram bin back to a percentage
+    private static Report report(List<Standing> standings, ScoreHistogram histogram, double binToPercent) {
+        Map<String, Integer> distribution = new TreeMap<>();
+        for (Standing standing : standings) {
+            distribution.merge(standing.grade(), 1, Integer::sum);
+        }
+        return new Report(standings, distribution,
+                histogram.valueAtPercentile(25) * binToPercent,
+                histogram.valueAtPercentile(50) * binToPercent,
+                histogram.valueAtPercentile(75) * binToPercent,
+                histogram.valueAtPercentile(90) * binToPercent);
+    }
+}
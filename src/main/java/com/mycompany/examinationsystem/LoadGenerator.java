@@ -0,0 +1,431 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.time.*;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+
+// Simulated exam day for load testing. Builds an institution of generated
+// teachers, courses, students and question banks in a fresh system, schedules
+// one quiz per course, and runs every student on its own virtual thread through
+// login, quiz start, answering (with think times) and submission, using the same
+// calls (and admission control) as the console front end. Reports throughput, latency percentiles per
+// step and heap use, and writes the report to loadtest_report.txt.
+//
+// With offline=1 students go through OfflineQuizClient instead: the quiz is
+// downloaded once and answers are synced in batches, optionally over a
+// transport that drops dropPercent of requests or their replies.
+//
+// Usage: loadtest [key=value ...], keys as in Config.DEFAULTS
+final class LoadGenerator {
+    private static final String CHECKPOINT_FILE = "loadtest_checkpoints.log";
+    private static final String REPORT_FILE = "loadtest_report.txt";
+    private static final long HEAP_SAMPLE_MILLIS = 100;
+    private static final double THINK_TIME_SPREAD = 0.6; // sigma of the log-normal think time
+    private static final String[] STEPS = {"login", "start", "answer", "sync", "submit"};
+    private static final int CONNECT_RETRIES = 5;
+
+    record Config(int courses, int teachers, int students, int coursesPerStudent, int bankSize,
+                  int quizLength, long thinkMillis, long rampMillis, int quizMinutes,
+                  boolean offline, int dropPercent) {
+        static final Map<String, Long> DEFAULTS = new LinkedHashMap<>();
+
+        static {
+            DEFAULTS.put("courses", 50L);
+            DEFAULTS.put("teachers", 10L);
+            DEFAULTS.put("students", 5000L);
+            DEFAULTS.put("coursesPerStudent", 2L);
+            DEFAULTS.put("bankSize", 200L);
+            DEFAULTS.put("quizLength", 20L);
+            DEFAULTS.put("thinkMillis", 200L);  // mean time spent on a question
+            DEFAULTS.put("rampMillis", 5000L);  // students log in spread over this period
+            DEFAULTS.put("quizMinutes", 60L);
+            DEFAULTS.put("offline", 0L);        // 1 = offline-first client with batched sync
+            DEFAULTS.put("dropPercent", 0L);    // offline only: requests lost in transit
+        }
+
+        static Config parse(String[] args) {
+            Map<String, Long> values = new LinkedHashMap<>(DEFAULTS);
+            for (String arg : args) {
+                String[] pair = arg.split("=", 2);
+                if (pair.length != 2 || !values.containsKey(pair[0])) {
+                    throw new IllegalArgumentException("Unknown setting: " + arg + " (settings: " + DEFAULTS.keySet() + ")");
+                }
+                try {
+                    values.put(pair[0], Long.parseLong(pair[1].trim()));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("Not a number: " + arg);
+                }
+            }
+            Config config = new Config(values.get("courses").intValue(), values.get("teachers").intValue(),
+                    values.get("students").intValue(), values.get("coursesPerStudent").intValue(),
+                    values.get("bankSize").intValue(), values.get("quizLength").intValue(),
+                    values.get("thinkMillis"), values.get("rampMillis"), values.get("quizMinutes").intValue(),
+                    values.get("offline") != 0, values.get("dropPercent").intValue());
+            if (config.courses() < 1 || config.teachers() < 1 || config.students() < 1 || config.bankSize() < 1
+                    || config.coursesPerStudent() < 1 || config.coursesPerStudent() > config.courses()
+                    || config.quizLength() < 1 || config.quizLength() > config.bankSize()
+                    || config.dropPercent() < 0 || config.dropPercent() >= 100) {
+                throw new IllegalArgumentException("Invalid load test settings: " + config);
+            }
+            return config;
+        }
+    }
+
+    private final Config config;
+    private final ExaminationSystem system;
+    private final Map<String, Queue<Long>> latencies; // step -> nanos
+    private final AtomicLong completedAttempts;
+    private final AtomicLong failedAttempts;
+    private final AtomicLong syncRequests;
+    private final AtomicLong peakHeap;
+    private final MemoryMXBean memory;
+
+    private LoadGenerator(Config config) {
+        this.config = config;
+        this.system = new ExaminationSystem(CHECKPOINT_FILE);
+        this.latencies = new LinkedHashMap<>();
+        for (String step : STEPS) {
+            latencies.put(step, new ConcurrentLinkedQueue<>());
+        }
+        this.completedAttempts = new AtomicLong();
+        this.failedAttempts = new AtomicLong();
+        this.syncRequests = new AtomicLong();
+        this.peakHeap = new AtomicLong();
+        this.memory = ManagementFactory.getMemoryMXBean();
+    }
+
+    static void run(String[] args) {
+        Terminal io = Terminal.get();
+        Config config;
+        try {
+            config = Config.parse(args);
+        } catch (IllegalArgumentException e) {
+            io.println(e.getMessage());
+            return;
+        }
+        new LoadGenerator(config).run();
+    }
+
+    private void run() {
+        Terminal io = Terminal.get();
+        io.println("Load test: " + config);
+        io.flush();
+
+        long setupStart = System.nanoTime();
+        Map<Student, List<Course>> students = buildInstitution();
+        long setupMillis = (System.nanoTime() - setupStart) / 1_000_000;
+        long heapBefore = heapUsed();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "loadtest-heap-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> peakHeap.accumulateAndGet(heapUsed(), Math::max),
+                0, HEAP_SAMPLE_MILLIS, TimeUnit.MILLISECONDS);
+
+        long runStart = System.nanoTime();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            students.forEach((student, courses) -> executor.submit(() -> {
+                if (config.offline()) {
+                    simulateOffline(student, courses);
+                } else {
+                    simulate(student, courses);
+                }
+            }));
+        }
+        long runNanos = System.nanoTime() - runStart;
+
+        sampler.shutdown();
+        system.getCheckpointer().close();
+        new File(CHECKPOINT_FILE).delete();
+        System.gc();
+        long heapAfter = heapUsed();
+
+        List<String> report = report(setupMillis, runNanos, heapBefore, heapAfter);
+        report.forEach(io::println);
+        try (PrintWriter writer = new PrintWriter(new FileWriter(REPORT_FILE))) {
+            report.forEach(writer::println);
+            io.println("Report saved to file: " + REPORT_FILE);
+        } catch (IOException e) {
+            io.println("Error saving load test report!");
+        }
+    }
+
+    // Teachers, courses with a question bank and an open quiz each, and students with their courses
+    private Map<Student, List<Course>> buildInstitution() {
+        Random random = new Random(42);
+        ShardRouter shards = system.getShards();
+
+        List<Teacher> teachers = new ArrayList<>();
+        for (int i = 0; i < config.teachers(); i++) {
+            Teacher teacher = new Teacher("T" + i, "pass" + i, "Teacher " + i);
+            system.addUser(teacher);
+            teachers.add(teacher);
+        }
+
+        ZonedDateTime start = ZonedDateTime.now(QuizSchedule.getDefaultZone()).minusMinutes(1);
+        List<Course> courses = new ArrayList<>();
+        for (int c = 0; c < config.courses(); c++) {
+            Course course = new Course("LT-" + c, "Load Test Course " + c, teachers.get(c % teachers.size()));
+            shards.addCourse(course);
+            courses.add(course);
+
+            List<Question> bank = new ArrayList<>();
+            for (int q = 0; q < config.bankSize(); q++) {
+                bank.add(generateQuestion(course.getCourseId() + "-q" + q, q, random));
+            }
+            shards.putQuestionBank(course.getCourseId(), bank);
+            int bankVersion = shards.getQuestionBank(course.getCourseId()).current().getNumber();
+
+            List<Question> quizQuestions = new ArrayList<>(bank);
+            Collections.shuffle(quizQuestions, random);
+            course.addQuiz(new Quiz("LT-QUIZ-" + c, course.getCourseId(), course.getInstructor(), start,
+                    Duration.ofMinutes(config.quizMinutes()), bankVersion, quizQuestions.subList(0, config.quizLength())));
+        }
+
+        Map<Student, List<Course>> students = new LinkedHashMap<>();
+        for (int s = 0; s < config.students(); s++) {
+            Student student = new Student("S" + s, "pass" + s, "Student " + s);
+            system.addUser(student);
+            List<Course> enrolled = new ArrayList<>();
+            for (int k = 0; enrolled.size() < config.coursesPerStudent(); k++) {
+                Course course = courses.get((s + k) % courses.size());
+                course.enrollStudent(student);
+                enrolled.add(course);
+            }
+            students.put(student, enrolled);
+        }
+        return students;
+    }
+
+    private static Question generateQuestion(String questionId, int number, Random random) {
+        String topic = "Topic " + (number % 10);
+        String text = "Generated question " + number + " about " + topic.toLowerCase() + "?";
+        return switch (number % 3) {
+            case 0 -> new MCQQuestion(questionId, topic, text, 2,
+                    List.of("Option A", "Option B", "Option C", "Option D"), random.nextInt(4));
+            case 1 -> new TrueFalseQuestion(questionId, topic, text, 1, random.nextBoolean());
+            default -> new SubjectiveQuestion(questionId, topic, text, 5, "Model answer " + number);
+        };
+    }
+
+    // One student's exam day: log in, then take each enrolled course's quiz
+    private void simulate(Student student, List<Course> courses) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        AttemptCheckpointer checkpointer = system.getCheckpointer();
+        AdmissionControl admission = system.getAdmission();
+        double ability = 0.3 + 0.6 * random.nextDouble(); // chance of answering correctly
+        try {
+            Thread.sleep(random.nextLong(config.rampMillis() + 1));
+
+            long t = System.nanoTime();
+            String number = student.getUserId().substring(1);
+            User user = admission.admitLogin(student.getUserId())
+                    ? system.authenticate(student.getUserId(), "pass" + number) : null;
+            record("login", t);
+            if (user == null) {
+                failedAttempts.incrementAndGet();
+                return;
+            }
+
+            for (Course course : courses) {
+                Quiz quiz = course.getQuizzes().get(0);
+
+                t = System.nanoTime();
+                QuizAttempt attempt = null;
+                if (admission.admitStart(student.getUserId()) == AdmissionControl.Decision.ADMITTED) {
+                    try {
+                        attempt = quiz.isActive() ? quiz.attemptQuiz(student) : null;
+                    } finally {
+                        admission.finishStart();
+                    }
+                }
+                if (attempt != null) {
+                    checkpointer.started(course.getCourseId(), quiz.getQuizId(), student.getUserId());
+                }
+                record("start", t);
+                if (attempt == null) {
+                    failedAttempts.incrementAndGet();
+                    continue;
+                }
+
+                long attemptStart = System.nanoTime();
+                for (Question question : attempt.getQuestionOrder()) {
+                    Thread.sleep(thinkTime(random));
+                    String answer = chooseAnswer(question, ability, random);
+                    t = System.nanoTime();
+                    attempt.recordAnswer(question.getQuestionId(), answer);
+                    checkpointer.answered(course.getCourseId(), quiz.getQuizId(), student.getUserId(),
+                            (t - attemptStart) / 1_000_000, question.getQuestionId(), answer);
+                    record("answer", t);
+                }
+
+                t = System.nanoTime();
+                attempt.gradeQuiz();
+                checkpointer.completed(course.getCourseId(), quiz.getQuizId(), student.getUserId());
+                record("submit", t);
+                completedAttempts.incrementAndGet();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The same exam day through the offline-first client. "start" covers login and
+    // downloading the quiz, "answer" is the local record and "sync" the batches it sends.
+    private void simulateOffline(Student student, List<Course> courses) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        AttemptSyncServer server = system.getSyncServer();
+        AttemptTransport transport = config.dropPercent() > 0
+                ? new OfflineQuizClient.UnreliableTransport(server, config.dropPercent() / 100.0, new Random(random.nextLong()))
+                : server;
+        String password = "pass" + student.getUserId().substring(1);
+        double ability = 0.3 + 0.6 * random.nextDouble();
+        try {
+            Thread.sleep(random.nextLong(config.rampMillis() + 1));
+
+            for (Course course : courses) {
+                Quiz quiz = course.getQuizzes().get(0);
+                OfflineQuizClient client = new OfflineQuizClient(transport,
+                        () -> transport.login(student.getUserId(), password), course.getCourseId(), quiz.getQuizId());
+
+                long t = System.nanoTime();
+                boolean connected = false;
+                for (int attempt = 0; attempt < CONNECT_RETRIES && !connected; attempt++) {
+                    try {
+                        client.connect();
+                        connected = true;
+                    } catch (UncheckedIOException e) {
+                        // Lost on the way; try again
+                    } catch (IllegalArgumentException e) {
+                        break;
+                    }
+                }
+                record("start", t);
+                if (!connected) {
+                    failedAttempts.incrementAndGet();
+                    continue;
+                }
+
+                for (AttemptTransport.PackagedQuestion packaged : client.getQuestions()) {
+                    Thread.sleep(thinkTime(random));
+                    String answer = shownAnswer(packaged, chooseAnswer(packaged.question(), ability, random));
+                    boolean fullBatch = client.getPendingCount() + 1 >= OfflineQuizClient.BATCH_SIZE;
+                    t = System.nanoTime();
+                    client.answer(packaged, answer);
+                    record(fullBatch ? "sync" : "answer", t);
+                }
+
+                t = System.nanoTime();
+                AttemptTransport.SyncAck ack = client.submit();
+                record("submit", t);
+                syncRequests.addAndGet(client.getRequestCount());
+                if (ack == null) {
+                    failedAttempts.incrementAndGet();
+                } else {
+                    completedAttempts.incrementAndGet();
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // The option number as the student sees it for a canonical MCQ answer
+    private static String shownAnswer(AttemptTransport.PackagedQuestion packaged, String answer) {
+        int[] order = packaged.optionOrder();
+        if (order == null) return answer;
+        int stored = Integer.parseInt(answer) - 1;
+        for (int shown = 0; shown < order.length; shown++) {
+            if (order[shown] == stored) return String.valueOf(shown + 1);
+        }
+        return answer;
+    }
+
+    // Log-normal around the configured mean: most answers are quick, a few take much longer
+    private long thinkTime(ThreadLocalRandom random) {
+        if (config.thinkMillis() <= 0) return 0;
+        double mu = Math.log(config.thinkMillis()) - THINK_TIME_SPREAD * THINK_TIME_SPREAD / 2;
+        return Math.round(Math.exp(mu + THINK_TIME_SPREAD * random.nextGaussian()));
+    }
+
+    private static String chooseAnswer(Question question, double ability, ThreadLocalRandom random) {
+        if (question instanceof SubjectiveQuestion) {
+            return "Simulated answer";
+        }
+        int choices = question instanceof MCQQuestion mcq ? mcq.getOptions().size() : 2;
+        boolean wantCorrect = random.nextDouble() < ability;
+        for (int option = 1; option <= choices; option++) {
+            if (question.checkAnswer(String.valueOf(option)) == wantCorrect) {
+                return String.valueOf(option);
+            }
+        }
+        return "1";
+    }
+
+    private void record(String step, long startNanos) {
+        latencies.get(step).add(System.nanoTime() - startNanos);
+    }
+
+    private long heapUsed() {
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+
+    private List<String> report(long setupMillis, long runNanos, long heapBefore, long heapAfter) {
+        double seconds = runNanos / 1e9;
+        long operations = 0;
+        for (Queue<Long> samples : latencies.values()) {
+            operations += samples.size();
+        }
+
+        List<String> lines = new ArrayList<>();
+        lines.add("Load Test Report - " + LocalDateTime.now().withNano(0));
+        lines.add(String.format("Institution: %d courses, %d teachers, %d students, %d questions per bank, %d per quiz",
+                config.courses(), config.teachers(), config.students(), config.bankSize(), config.quizLength()));
+        lines.add("Setup time: " + setupMillis + " ms");
+        lines.add(String.format("Run time: %.1f s (mean think time %d ms, ramp-up %d ms)",
+                seconds, config.thinkMillis(), config.rampMillis()));
+        lines.add(String.format("Attempts: %d completed, %d failed, %.1f attempts/sec",
+                completedAttempts.get(), failedAttempts.get(), completedAttempts.get() / seconds));
+        lines.add(String.format("Throughput: %d operations, %.1f operations/sec", operations, operations / seconds));
+        if (config.offline()) {
+            long attempts = completedAttempts.get() + failedAttempts.get();
+            lines.add(String.format("Offline-first client: %d%% of requests dropped, %d requests, %.1f per attempt",
+                    config.dropPercent(), syncRequests.get(), attempts == 0 ? 0.0 : (double) syncRequests.get() / attempts));
+        }
+
+        lines.add("");
+        lines.add("Step\t\tCount\tp50 (us)\tp90 (us)\tp99 (us)\tMax (us)");
+        for (Map.Entry<String, Queue<Long>> step : latencies.entrySet()) {
+            long[] samples = step.getValue().stream().mapToLong(Long::longValue).sorted().toArray();
+            lines.add(String.format("%-8s\t%d\t%d\t\t%d\t\t%d\t\t%d", step.getKey(), samples.length,
+                    percentile(samples, 50), percentile(samples, 90), percentile(samples, 99),
+                    samples.length == 0 ? 0 : samples[samples.length - 1] / 1000));
+        }
+
+        AdmissionControl.Metrics admission = system.getAdmission().getMetrics();
+        lines.add("");
+        lines.add(String.format("Admission: %d starts admitted, %d rejected (%d rate limited, %d queue full, %d timed out), %d logins rejected",
+                admission.admitted(), admission.rejected(), admission.rateLimited(), admission.queueFull(),
+                admission.timedOut(), admission.loginsRejected()));
+        lines.add(String.format("Start queue: max depth %d, mean wait %d us, max wait %d us",
+                admission.maxQueueDepth(), admission.meanWaitMicros(), admission.maxWaitMicros()));
+
+        lines.add("");
+        lines.add(String.format("Heap: %d MB after setup, %d MB peak during run, %d MB retained after GC",
+                heapBefore >> 20, Math.max(peakHeap.get(), heapBefore) >> 20, heapAfter >> 20));
+        return lines;
+    }
+
+    // Nearest-rank percentile in microseconds
+    private static long percentile(long[] sorted, int percent) {
+        if (sorted.length == 0) return 0;
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)] / 1000;
+    }
+}
@@ -0,0 +1,226 @@
+package com.mycompany.examinationsystem;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.*;
+import java.util.function.Supplier;
+
+import com.mycompany.examinationsystem.AttemptTransport.*;
+
+// Student side of the offline-first attempt protocol. The quiz is downloaded
+// once; answers are kept locally and sent as numbered changes in batches of
+// BATCH_SIZE, so an attempt takes a handful of requests and carries on while
+// the connection is down. Unacknowledged changes are resent until the server
+// confirms them, and after a reconnect any local answer the server does not
+// have is queued again.
+final class OfflineQuizClient {
+    static final int BATCH_SIZE = 5;
+    private static final int SUBMIT_RETRIES = 6;
+    private static final long RETRY_BACKOFF_MILLIS = 100;
+
+    private final AttemptTransport transport;
+    private final Supplier<String> login;
+    private final String courseId;
+    private final String quizId;
+    private final Map<String, String> answers;
+    private final Map<String, Long> answeredMillis;
+    private final List<AnswerChange> pending;
+    private String session;
+    private QuizPackage quizPackage;
+    private long nextSequence;
+    private int requests;
+    private String refusal; // why the server refused to open the attempt again, if it did
+
+    // login obtains a session token (or null) and is called again if the session is lost
+    public OfflineQuizClient(AttemptTransport transport, Supplier<String> login, String courseId, String quizId) {
+        this.transport = transport;
+        this.login = login;
+        this.courseId = courseId;
+        this.quizId = quizId;
+        this.answers = new LinkedHashMap<>();
+        this.answeredMillis = new HashMap<>();
+        this.pending = new ArrayList<>();
+        this.nextSequence = 1;
+    }
+
+    // Logs in unless already logged in, and downloads the quiz. Throws
+    // IllegalArgumentException if the server refuses the attempt and
+    // UncheckedIOException if it cannot be reached.
+    public void connect() {
+        if (session == null) {
+            requests++;
+            session = login.get();
+            if (session == null) {
+                throw new IllegalArgumentException("Invalid credentials!");
+            }
+        }
+        requests++;
+        quizPackage = transport.open(session, courseId, quizId);
+
+        long acknowledged = quizPackage.syncedSequence();
+        pending.removeIf(change -> change.sequence() <= acknowledged);
+        nextSequence = Math.max(nextSequence, acknowledged + 1);
+
+        // The server's answers fill in what this client has not answered; local
+        // answers the server lost (e.g. in a restart) are sent again
+        Set<String> queued = new HashSet<>();
+        pending.forEach(change -> queued.add(change.questionId()));
+        quizPackage.answers().forEach(answers::putIfAbsent);
+        for (Map.Entry<String, String> answer : answers.entrySet()) {
+            if (!queued.contains(answer.getKey())
+                    && !answer.getValue().equals(quizPackage.answers().get(answer.getKey()))) {
+                pending.add(new AnswerChange(nextSequence++, answer.getKey(), answer.getValue(),
+                        answeredMillis.getOrDefault(answer.getKey(), System.currentTimeMillis())));
+            }
+        }
+    }
+
+    public List<PackagedQuestion> getQuestions() {
+        return quizPackage.questions();
+    }
+
+    public long getDeadlineMillis() {
+        return quizPackage.deadlineMillis();
+    }
+
+    public boolean isAnswered(Question question) {
+        return answers.containsKey(question.getQuestionId());
+    }
+
+    public int getPendingCount() {
+        return pending.size();
+    }
+
+    public int getRequestCount() {
+        return requests;
+    }
+
+    // The server's reason when the last sync or submit failed because it refused
+    // to open the attempt again; null if it failed for lack of a connection
+    public String getRefusal() {
+        return refusal;
+    }
+
+    // Records an answer as typed for the question as shown; syncs once a batch is full
+    public void answer(PackagedQuestion question, String shownAnswer) {
+        String answer = question.question() instanceof MCQQuestion mcq
+                ? mcq.toStoredAnswer(question.optionOrder(), shownAnswer)
+                : shownAnswer;
+        String questionId = question.question().getQuestionId();
+        if (answer.equals(answers.put(questionId, answer))) return;
+
+        long now = System.currentTimeMillis();
+        answeredMillis.put(questionId, now);
+        pending.add(new AnswerChange(nextSequence++, questionId, answer, now));
+        if (pending.size() >= BATCH_SIZE) {
+            trySync();
+        }
+    }
+
+    // Sends queued changes; returns false if the server could not be reached
+    public boolean trySync() {
+        if (pending.isEmpty()) return true;
+        SyncAck ack = send(false);
+        return ack != null;
+    }
+
+    // Sends everything still queued and submits, retrying with backoff while the
+    // server is unreachable; returns null if it was not submitted
+    public SyncAck submit() {
+        for (int attempt = 0; attempt < SUBMIT_RETRIES; attempt++) {
+            SyncAck ack = send(true);
+            // UNKNOWN_SESSION here means the server had no attempt even after reopening it
+            if (ack != null && ack.status() != Status.ACCEPTED && ack.status() != Status.UNKNOWN_SESSION) {
+                return ack;
+            }
+            if (refusal != null) {
+                return null;
+            }
+            try {
+                Thread.sleep(RETRY_BACKOFF_MILLIS << attempt);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private SyncAck send(boolean submit) {
+        refusal = null;
+        try {
+            if (quizPackage == null && !reconnect()) {
+                return null;
+            }
+            requests++;
+            SyncAck ack = transport.sync(new SyncBatch(session, courseId, quizId, List.copyOf(pending), submit));
+            if (ack.status() == Status.UNKNOWN_SESSION) {
+                // Server restarted or session expired: log in, open the attempt again and resend
+                session = null;
+                if (!reconnect()) {
+                    return null;
+                }
+                requests++;
+                ack = transport.sync(new SyncBatch(session, courseId, quizId, List.copyOf(pending), submit));
+            }
+            long acknowledged = ack.syncedSequence();
+            pending.removeIf(change -> change.sequence() <= acknowledged);
+            return ack;
+        } catch (UncheckedIOException e) {
+            return null;
+        }
+    }
+
+    // Connects again for send(); false if the server refused, e.g. over the login limit
+    private boolean reconnect() {
+        try {
+            connect();
+            return true;
+        } catch (IllegalArgumentException e) {
+            refusal = e.getMessage();
+            return false;
+        }
+    }
+
+    // Transport that loses a share of requests, either before they reach the server
+    // or after (the reply is lost), for trying the protocol on a flaky connection
+    static final class UnreliableTransport implements AttemptTransport {
+        private final AttemptTransport server;
+        private final double failureRate;
+        private final Random random;
+
+        UnreliableTransport(AttemptTransport server, double failureRate, Random random) {
+            this.server = server;
+            this.failureRate = failureRate;
+            this.random = random;
+        }
+
+        @Override
+        public String login(String userId, String password) {
+            return deliver(() -> server.login(userId, password));
+        }
+
+        @Override
+        public QuizPackage open(String session, String courseId, String quizId) {
+            return deliver(() -> server.open(session, courseId, quizId));
+        }
+
+        @Override
+        public SyncAck sync(SyncBatch batch) {
+            return deliver(() -> server.sync(batch));
+        }
+
+        private <T> T deliver(Supplier<T> call) {
+            drop();
+            T reply = call.get();
+            drop();
+            return reply;
+        }
+
+        private void drop() {
+            if (random.nextDouble() < failureRate / 2) {
+                throw new UncheckedIOException(new IOException("Connection lost"));
+            }
+        }
+    }
+}
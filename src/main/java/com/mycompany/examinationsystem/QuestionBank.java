@@ -0,0 +1,145 @@
+package com.mycompany.examinationsystem;
+
+import java.io.Serializable;
+import java.util.*;
+
+// Copy-on-write question bank for one course. Questions are immutable, so a
+// bank version is just an immutable list of references, split into chunks: an
+// edit copies the chunk it touches and the small chunk table, and every other
+// chunk is shared with the previous version. Readers take the current version
+// without locking. Quizzes keep the question versions they were created with,
+// so a replaced or removed question stays alive only while some quiz uses it.
+final class QuestionBank implements Serializable {
+    private static final long serialVersionUID = -5978219086838512311L;
+    private static final int CHUNK_SIZE = 64;
+
+    // One published state of the bank; never changes once created
+    static final class Version extends AbstractList<Question> implements Serializable {
+        private static final long serialVersionUID = 6017850965957568993L;
+
+        private final int number;
+        private final List<List<Question>> chunks;
+        private final int[] offsets; // index of the first question of each chunk
+        private final int size;
+
+        private Version(int number, List<List<Question>> chunks) {
+            this.number = number;
+            this.chunks = List.copyOf(chunks);
+            this.offsets = new int[chunks.size()];
+            int total = 0;
+            for (int i = 0; i < chunks.size(); i++) {
+                offsets[i] = total;
+                total += chunks.get(i).size();
+            }
+            this.size = total;
+        }
+
+        public int getNumber() {
+            return number;
+        }
+
+        @Override
+        public Question get(int index) {
+            Objects.checkIndex(index, size);
+            int chunk = chunkOf(index);
+            return chunks.get(chunk).get(index - offsets[chunk]);
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        public Question find(String questionId) {
+            int index = indexOf(questionId);
+            return index >= 0 ? get(index) : null;
+        }
+
+        private int indexOf(String questionId) {
+            for (int chunk = 0; chunk < chunks.size(); chunk++) {
+                List<Question> questions = chunks.get(chunk);
+                for (int i = 0; i < questions.size(); i++) {
+                    if (questions.get(i).getQuestionId().equals(questionId)) return offsets[chunk] + i;
+                }
+            }
+            return -1;
+        }
+
+        // Chunks are never empty, so chunk offsets are strictly increasing
+        private int chunkOf(int index) {
+            int chunk = Arrays.binarySearch(offsets, index);
+            return chunk >= 0 ? chunk : -chunk - 2;
+        }
+
+        private Version withChunk(int chunk, List<Question> questions) {
+            List<List<Question>> table = new ArrayList<>(chunks);
+            if (questions.isEmpty()) {
+                table.remove(chunk);
+            } else if (chunk == table.size()) {
+                table.add(List.copyOf(questions));
+            } else {
+                table.set(chunk, List.copyOf(questions));
+            }
+            return new Version(number + 1, table);
+        }
+    }
+
+    private volatile Version current;
+
+    public QuestionBank() {
+        this.current = new Version(0, List.of());
+    }
+
+    public QuestionBank(List<Question> questions) {
+        this();
+        addAll(questions);
+    }
+
+    public Version current() {
+        return current;
+    }
+
+    public synchronized void add(Question question) {
+        Version version = current;
+        int last = version.chunks.size() - 1;
+        if (last >= 0 && version.chunks.get(last).size() < CHUNK_SIZE) {
+            List<Question> chunk = new ArrayList<>(version.chunks.get(last));
+            chunk.add(question);
+            current = version.withChunk(last, chunk);
+        } else {
+            current = version.withChunk(last + 1, List.of(question));
+        }
+    }
+
+    public synchronized void addAll(List<Question> questions) {
+        if (questions.isEmpty()) return;
+        List<List<Question>> table = new ArrayList<>(current.chunks);
+        for (int start = 0; start < questions.size(); start += CHUNK_SIZE) {
+            table.add(List.copyOf(questions.subList(start, Math.min(questions.size(), start + CHUNK_SIZE))));
+        }
+        current = new Version(current.number + 1, table);
+    }
+
+    // Publishes a new version of an existing question; returns false if its id is not in the bank
+    public synchronized boolean replace(Question question) {
+        Version version = current;
+        int index = version.indexOf(question.getQuestionId());
+        if (index < 0) return false;
+        int chunk = version.chunkOf(index);
+        List<Question> questions = new ArrayList<>(version.chunks.get(chunk));
+        questions.set(index - version.offsets[chunk], question);
+        current = version.withChunk(chunk, questions);
+        return true;
+    }
+
+    public synchronized boolean remove(String questionId) {
+        Version version = current;
+        int index = version.indexOf(questionId);
+        if (index < 0) return false;
+        int chunk = version.chunkOf(index);
+        List<Question> questions = new ArrayList<>(version.chunks.get(chunk));
+        questions.remove(index - version.offsets[chunk]);
+        current = version.withChunk(chunk, questions);
+        return true;
+    }
+}
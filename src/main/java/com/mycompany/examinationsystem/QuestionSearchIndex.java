@@ -0,0 +1,152 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Inverted index over one course's question bank: question text, topic and MCQ
+// options are split into lower-case terms kept in a sorted map, so a query term
+// is an exact lookup and the last (possibly unfinished) term a prefix range scan.
+// Results must match every query term and are ranked by TF-IDF with topic hits
+// weighted above text and option hits.
+final class QuestionSearchIndex {
+    private static final int TEXT_WEIGHT = 2;
+    private static final int TOPIC_WEIGHT = 3;
+    private static final int OPTION_WEIGHT = 1;
+    private static final Comparator<Map.Entry<String, Double>> RANKING =
+            Map.Entry.<String, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey());
+
+    // Per-question weights for one query term, scaled by idf when scored
+    private record TermMatches(Map<String, ? extends Number> weights, double idf) {
+    }
+
+    private final TreeMap<String, Map<String, Integer>> postings; // term -> questionId -> weighted count
+    private final Map<String, Question> questions;
+    private final Map<String, Set<String>> termsById;
+
+    public QuestionSearchIndex() {
+        this.postings = new TreeMap<>();
+        this.questions = new HashMap<>();
+        this.termsById = new HashMap<>();
+    }
+
+    static QuestionSearchIndex build(List<Question> bank) {
+        QuestionSearchIndex index = new QuestionSearchIndex();
+        for (Question question : bank) {
+            index.add(question);
+        }
+        return index;
+    }
+
+    public synchronized int size() {
+        return questions.size();
+    }
+
+    public synchronized void add(Question question) {
+        String questionId = question.getQuestionId();
+        remove(questionId);
+
+        Map<String, Integer> weights = new HashMap<>();
+        addTerms(weights, question.getQuestionText(), TEXT_WEIGHT);
+        addTerms(weights, question.getTopic(), TOPIC_WEIGHT);
+        if (question instanceof MCQQuestion mcq) {
+            for (String option : mcq.getOptions()) {
+                addTerms(weights, option, OPTION_WEIGHT);
+            }
+        }
+
+        questions.put(questionId, question);
+        termsById.put(questionId, weights.keySet());
+        for (Map.Entry<String, Integer> term : weights.entrySet()) {
+            postings.computeIfAbsent(term.getKey(), t -> new HashMap<>()).put(questionId, term.getValue());
+        }
+    }
+
+    public synchronized void remove(String questionId) {
+        questions.remove(questionId);
+        Set<String> terms = termsById.remove(questionId);
+        if (terms == null) return;
+        for (String term : terms) {
+            Map<String, Integer> matches = postings.get(term);
+            matches.remove(questionId);
+            if (matches.isEmpty()) postings.remove(term);
+        }
+    }
+
+    // Questions matching all terms of the query, best match first
+    public synchronized List<Question> search(String query, int limit) {
+        List<String> terms = tokenize(query);
+        if (terms.isEmpty() || limit <= 0) return List.of();
+
+        List<TermMatches> matches = new ArrayList<>();
+        for (int i = 0; i < terms.size(); i++) {
+            TermMatches termMatches = i == terms.size() - 1 ? prefixMatches(terms.get(i)) : exactMatches(terms.get(i));
+            if (termMatches == null) return List.of();
+            matches.add(termMatches);
+        }
+        // Candidates come from the rarest term; the others are only probed
+        matches.sort(Comparator.comparingInt(termMatches -> termMatches.weights().size()));
+
+        PriorityQueue<Map.Entry<String, Double>> best = new PriorityQueue<>(RANKING.reversed());
+        for (String questionId : matches.get(0).weights().keySet()) {
+            double score = 0;
+            for (TermMatches termMatches : matches) {
+                Number weight = termMatches.weights().get(questionId);
+                if (weight == null) {
+                    score = 0;
+                    break;
+                }
+                score += weight.doubleValue() * termMatches.idf();
+            }
+            if (score == 0) continue;
+            best.add(Map.entry(questionId, score));
+            if (best.size() > limit) best.poll();
+        }
+
+        List<Map.Entry<String, Double>> ranked = new ArrayList<>(best);
+        ranked.sort(RANKING);
+        List<Question> results = new ArrayList<>();
+        for (Map.Entry<String, Double> entry : ranked) {
+            results.add(questions.get(entry.getKey()));
+        }
+        return results;
+    }
+
+    private TermMatches exactMatches(String term) {
+        Map<String, Integer> matches = postings.get(term);
+        return matches == null ? null : new TermMatches(matches, idf(matches.size()));
+    }
+
+    // Completions of a prefix are merged, keeping each question's best-scoring one
+    private TermMatches prefixMatches(String prefix) {
+        SortedMap<String, Map<String, Integer>> completions = postings.subMap(prefix, prefix + Character.MAX_VALUE);
+        if (completions.isEmpty()) return null;
+        if (completions.size() == 1) return exactMatches(completions.firstKey());
+
+        Map<String, Double> scores = new HashMap<>();
+        for (Map<String, Integer> matches : completions.values()) {
+            double idf = idf(matches.size());
+            for (Map.Entry<String, Integer> match : matches.entrySet()) {
+                scores.merge(match.getKey(), match.getValue() * idf, Math::max);
+            }
+        }
+        return new TermMatches(scores, 1.0);
+    }
+
+    private double idf(int matches) {
+        return Math.log(1.0 + (double) questions.size() / matches);
+    }
+
+    private static void addTerms(Map<String, Integer> weights, String text, int weight) {
+        for (String term : tokenize(text)) {
+            weights.merge(term, weight, Integer::sum);
+        }
+    }
+
+    static List<String> tokenize(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null) return terms;
+        for (String term : text.toLowerCase().split("[^\\p{L}\\p{N}]+")) {
+            if (!term.isEmpty()) terms.add(term);
+        }
+        return terms;
+    }
+}
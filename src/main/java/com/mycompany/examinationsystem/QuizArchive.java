@@ -0,0 +1,271 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.function.Function;
+
+// On-disk tier for the attempts of closed quizzes. Once a quiz is over, its
+// attempts are written to one file per quiz and dropped from the heap, so they
+// are no longer kept in memory or rewritten by every save. Reports still call
+// Quiz.snapshot() and Quiz.getScoreIndex(); for an archived quiz these are read
+// back from the file and kept in a small LRU cache
+// (-Dexam.archiveCacheSize, default 8 quizzes).
+//
+// File layout (DataOutputStream), one column after another; strings are a byte
+// length followed by their UTF-8 bytes, so answers of any size fit:
+//   magic, format version, courseId, quizId, attempt count n, question count q
+//   q question ids
+//   n student ids      who attempted (attendance)
+//   n scores
+//   q answer columns   each: presence bitmap over the n attempts, then the answers present
+// Scores come before the answers, so score-only readers stop early.
+final class QuizArchive {
+    static final String ARCHIVE_DIR = "quiz_archive";
+    private static final int MAGIC = 0x515A4131; // "QZA1"
+    private static final int FORMAT_VERSION = 2; // version 1 used writeUTF, limited to 64 KB per string
+    private static final int CACHE_SIZE = Integer.getInteger("exam.archiveCacheSize", 8);
+
+    // An archived quiz as read back for reporting
+    record Archived(QuizSnapshot snapshot, ScoreIndex scoreIndex) {
+    }
+
+    // Most recently used last
+    private static final Map<String, Archived> CACHE = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Archived> eldest) {
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private QuizArchive() {
+    }
+
+    // The course and quiz ids are escaped before they are joined, so two quizzes
+    // never share a file name. Archives written under the earlier, lossy name are
+    // still found; the ids in the header tell whether such a file is this quiz's.
+    static Path fileFor(Quiz quiz) {
+        Path file = Path.of(ARCHIVE_DIR, escape(quiz.getCourseId()) + "__" + escape(quiz.getQuizId()) + ".qza");
+        if (!Files.exists(file)) {
+            Path legacy = Path.of(ARCHIVE_DIR,
+                    (quiz.getCourseId() + "_" + quiz.getQuizId()).replaceAll("[^A-Za-z0-9._-]", "_") + ".qza");
+            if (Files.exists(legacy) && holds(legacy, quiz.getCourseId(), quiz.getQuizId())) return legacy;
+        }
+        return file;
+    }
+
+    private static boolean holds(Path file, String courseId, String quizId) {
+        try {
+            open(file, courseId, quizId).close();
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    // Characters outside [A-Za-z0-9.-] become "_" and four hex digits, so "__"
+    // never occurs inside an escaped id
+    static String escape(String id) {
+        StringBuilder escaped = new StringBuilder(id.length());
+        for (int i = 0; i < id.length(); i++) {
+            char c = id.charAt(i);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9') || c == '.' || c == '-') {
+                escaped.append(c);
+            } else {
+                escaped.append('_').append(String.format("%04x", (int) c));
+            }
+        }
+        return escaped.toString();
+    }
+
+    // Writes the graded attempts through a temporary file, so an existing archive
+    // is only replaced by a complete one
+    static void write(Quiz quiz, Collection<QuizAttempt> attempts, Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        if (Files.exists(file)) {
+            // e.g. ids that differ only in case on a case-insensitive file system
+            open(file, quiz.getCourseId(), quiz.getQuizId()).close();
+        }
+        List<QuizAttempt> rows = new ArrayList<>(attempts);
+        List<Question> questions = quiz.getQuestions();
+
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT_VERSION);
+            writeString(out, quiz.getCourseId());
+            writeString(out, quiz.getQuizId());
+            out.writeInt(rows.size());
+            out.writeInt(questions.size());
+            for (Question question : questions) {
+                writeString(out, question.getQuestionId());
+            }
+            for (QuizAttempt attempt : rows) {
+                writeString(out, attempt.getStudent().getUserId());
+            }
+            for (QuizAttempt attempt : rows) {
+                out.writeInt(attempt.getScore());
+            }
+            for (Question question : questions) {
+                BitSet present = new BitSet(rows.size());
+                for (int i = 0; i < rows.size(); i++) {
+                    if (rows.get(i).answers.containsKey(question.getQuestionId())) present.set(i);
+                }
+                byte[] bitmap = present.toByteArray();
+                out.writeInt(bitmap.length);
+                out.write(bitmap);
+                for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                    writeString(out, rows.get(i).answers.get(question.getQuestionId()));
+                }
+            }
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Attempts and answers of an archived quiz, from the cache or the file. If the
+    // file cannot be read the quiz shows no attempts and the error is reported.
+    static Archived load(Path file, String courseId, String quizId, Function<String, Student> students) {
+        String key = file.toAbsolutePath().toString();
+        synchronized (CACHE) {
+            Archived cached = CACHE.get(key);
+            if (cached != null) return cached;
+        }
+
+        Archived archived;
+        try {
+            archived = read(file, courseId, quizId, students);
+        } catch (IOException e) {
+            Terminal.get().println("Error reading quiz archive: " + e.getMessage());
+            return new Archived(QuizSnapshot.empty(), new ScoreIndex());
+        }
+        synchronized (CACHE) {
+            Archived raced = CACHE.putIfAbsent(key, archived);
+            return raced != null ? raced : archived;
+        }
+    }
+
+    // Reads only the student and score columns: studentId -> score
+    static Map<String, Integer> readScores(Path file, String courseId, String quizId) throws IOException {
+        try (ArchiveInput in = open(file, courseId, quizId)) {
+            Header header = readHeader(in);
+            Map<String, Integer> scores = new LinkedHashMap<>();
+            for (String studentId : header.studentIds()) {
+                scores.put(studentId, in.readInt());
+            }
+            return scores;
+        }
+    }
+
+    static void evict(Path file) {
+        synchronized (CACHE) {
+            CACHE.remove(file.toAbsolutePath().toString());
+        }
+    }
+
+    // Cached quizzes refer to the students of the courses they were read for
+    static void clearCache() {
+        synchronized (CACHE) {
+            CACHE.clear();
+        }
+    }
+
+    private record Header(String[] questionIds, String[] studentIds) {
+    }
+
+    private static Archived read(Path file, String courseId, String quizId,
+                                 Function<String, Student> students) throws IOException {
+        try (ArchiveInput in = open(file, courseId, quizId)) {
+            Header header = readHeader(in);
+            int count = header.studentIds().length;
+            int[] scores = new int[count];
+            for (int i = 0; i < count; i++) {
+                scores[i] = in.readInt();
+            }
+            List<Map<String, String>> answers = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                answers.add(new HashMap<>());
+            }
+            for (String questionId : header.questionIds()) {
+                byte[] bitmap = new byte[in.readInt()];
+                in.readFully(bitmap);
+                BitSet present = BitSet.valueOf(bitmap);
+                for (int i = present.nextSetBit(0); i >= 0; i = present.nextSetBit(i + 1)) {
+                    answers.get(i).put(questionId, in.readString());
+                }
+            }
+
+            List<QuizSnapshot.AttemptView> views = new ArrayList<>(count);
+            ScoreIndex scoreIndex = new ScoreIndex();
+            for (int i = 0; i < count; i++) {
+                String studentId = header.studentIds()[i];
+                // A student no longer enrolled keeps their result under their id
+                Student student = students.apply(studentId);
+                if (student == null) student = new Student(studentId, "", studentId);
+                views.add(new QuizSnapshot.AttemptView(student, Map.copyOf(answers.get(i)), scores[i], true));
+                scoreIndex.update(student, scores[i]);
+            }
+            return new Archived(QuizSnapshot.empty().withChanges(views), scoreIndex);
+        }
+    }
+
+    // Opens the file after its header; throws if it is not the given quiz's archive
+    private static ArchiveInput open(Path file, String courseId, String quizId) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)));
+        try {
+            int version = in.readInt() == MAGIC ? in.readInt() : -1;
+            if (version < 1 || version > FORMAT_VERSION) {
+                throw new IOException("Not a quiz archive: " + file);
+            }
+            ArchiveInput archive = new ArchiveInput(in, version);
+            String storedCourse = archive.readString();
+            String storedQuiz = archive.readString();
+            if (!storedCourse.equals(courseId) || !storedQuiz.equals(quizId)) {
+                throw new IOException(file + " holds quiz " + storedQuiz + " of " + storedCourse +
+                        ", not " + quizId + " of " + courseId);
+            }
+            return archive;
+        } catch (IOException e) {
+            in.close();
+            throw e;
+        }
+    }
+
+    private static Header readHeader(ArchiveInput in) throws IOException {
+        int count = in.readInt();
+        String[] questionIds = new String[in.readInt()];
+        for (int q = 0; q < questionIds.length; q++) {
+            questionIds[q] = in.readString();
+        }
+        String[] studentIds = new String[count];
+        for (int i = 0; i < count; i++) {
+            studentIds[i] = in.readString();
+        }
+        return new Header(questionIds, studentIds);
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    // Reads strings as the file's format version wrote them
+    private static final class ArchiveInput extends DataInputStream {
+        private final int version;
+
+        ArchiveInput(InputStream in, int version) {
+            super(in);
+            this.version = version;
+        }
+
+        String readString() throws IOException {
+            if (version == 1) return readUTF();
+            int length = readInt();
+            if (length < 0) throw new IOException("Corrupt quiz archive");
+            byte[] bytes = new byte[length];
+            readFully(bytes);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.mycompany.examinationsystem;
+
+import java.time.*;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.*;
+
+// Time handling for quiz scheduling. Formatters are java.time ones, which are
+// immutable and shared by all threads. Start times are read in the zone given
+// after the time or else the system zone (-Dexam.timezone overrides it), and
+// the coarse clock lets frequent "is this quiz open" checks read a volatile
+// field instead of building a date for every call.
+final class QuizSchedule {
+    static final String INPUT_PATTERN = "yyyy-MM-dd HH:mm";
+    private static final long CLOCK_TICK_MILLIS = 10;
+
+    private static final DateTimeFormatter INPUT_FORMAT = DateTimeFormatter.ofPattern(INPUT_PATTERN);
+    private static final DateTimeFormatter DISPLAY_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm z");
+    private static final ZoneId DEFAULT_ZONE = defaultZone();
+
+    private static volatile long coarseMillis = System.currentTimeMillis();
+
+    static {
+        ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "quiz-clock");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleAtFixedRate(() -> coarseMillis = System.currentTimeMillis(),
+                CLOCK_TICK_MILLIS, CLOCK_TICK_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private QuizSchedule() {
+    }
+
+    // A mistyped -Dexam.timezone falls back to the system zone instead of stopping startup
+    private static ZoneId defaultZone() {
+        String zone = System.getProperty("exam.timezone");
+        if (zone == null) return ZoneId.systemDefault();
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            Terminal.get().println("Unknown time zone in exam.timezone: " + zone + ", using " + ZoneId.systemDefault());
+            return ZoneId.systemDefault();
+        }
+    }
+
+    static ZoneId getDefaultZone() {
+        return DEFAULT_ZONE;
+    }
+
+    // Current time, at most CLOCK_TICK_MILLIS behind the system clock
+    static long currentTimeMillis() {
+        return coarseMillis;
+    }
+
+    // "yyyy-MM-dd HH:mm", optionally followed by a zone such as Europe/London or +05:30;
+    // throws DateTimeException if either part is invalid
+    static ZonedDateTime parseStart(String text) {
+        String trimmed = text.trim();
+        if (trimmed.length() < INPUT_PATTERN.length()) {
+            throw new DateTimeParseException("Expected " + INPUT_PATTERN, trimmed, 0);
+        }
+        LocalDateTime local = LocalDateTime.parse(trimmed.substring(0, INPUT_PATTERN.length()), INPUT_FORMAT);
+        String zone = trimmed.substring(INPUT_PATTERN.length()).trim();
+        return local.atZone(zone.isEmpty() ? DEFAULT_ZONE : ZoneId.of(zone));
+    }
+
+    static String format(ZonedDateTime time) {
+        return DISPLAY_FORMAT.format(time);
+    }
+}
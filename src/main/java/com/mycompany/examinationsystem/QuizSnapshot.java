@@ -0,0 +1,71 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Immutable, consistent view of a quiz's attempts for reporting.
+// Attempts are spread over fixed buckets; a new snapshot copies only the buckets
+// touched since the previous one and shares the rest, so building it costs in
+// proportion to the changes rather than to the class size.
+final class QuizSnapshot {
+    private static final int BUCKETS = 256;
+
+    // Frozen copy of one attempt
+    record AttemptView(Student student, Map<String, String> answers, int score, boolean graded) {
+    }
+
+    private final long epoch;
+    private final List<Map<String, AttemptView>> buckets; // never modified once published
+    private final int size;
+
+    static QuizSnapshot empty() {
+        return new QuizSnapshot(0, Collections.nCopies(BUCKETS, Map.of()), 0);
+    }
+
+    private QuizSnapshot(long epoch, List<Map<String, AttemptView>> buckets, int size) {
+        this.epoch = epoch;
+        this.buckets = buckets;
+        this.size = size;
+    }
+
+    // Returns a new snapshot with the given attempts added or replaced
+    QuizSnapshot withChanges(Collection<AttemptView> changed) {
+        if (changed.isEmpty()) return this;
+
+        List<Map<String, AttemptView>> next = new ArrayList<>(buckets);
+        Map<Integer, Map<String, AttemptView>> touched = new HashMap<>();
+        int newSize = size;
+        for (AttemptView view : changed) {
+            String studentId = view.student().getUserId();
+            int bucket = bucketOf(studentId);
+            Map<String, AttemptView> copy = touched.computeIfAbsent(bucket, b -> new HashMap<>(buckets.get(b)));
+            if (copy.put(studentId, view) == null) newSize++;
+        }
+        for (Map.Entry<Integer, Map<String, AttemptView>> entry : touched.entrySet()) {
+            next.set(entry.getKey(), Map.copyOf(entry.getValue()));
+        }
+        return new QuizSnapshot(epoch + 1, next, newSize);
+    }
+
+    public long getEpoch() { return epoch; }
+    public int size() { return size; }
+
+    public AttemptView get(String studentId) {
+        return buckets.get(bucketOf(studentId)).get(studentId);
+    }
+
+    public boolean contains(String studentId) {
+        return get(studentId) != null;
+    }
+
+    public List<AttemptView> attempts() {
+        List<AttemptView> all = new ArrayList<>(size);
+        for (Map<String, AttemptView> bucket : buckets) {
+            all.addAll(bucket.values());
+        }
+        return all;
+    }
+
+    private static int bucketOf(String studentId) {
+        return Math.floorMod(studentId.hashCode(), BUCKETS);
+    }
+}
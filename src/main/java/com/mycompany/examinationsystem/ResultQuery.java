@@ -0,0 +1,89 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+import java.util.stream.*;
+
+// Sorted, filtered and paged view of a quiz's results. Score-ordered queries are
+// answered from the quiz's ScoreIndex; only name order needs a sort.
+final class ResultQuery {
+    enum Mode { ALL_BY_NAME, ALL_BY_SCORE, TOP, BOTTOM, BELOW, ABSENT }
+
+    enum Status { GRADED, IN_PROGRESS, ABSENT }
+
+    record ResultRow(Student student, Status status, int score) {
+    }
+
+    record ResultPage(List<ResultRow> rows, int page, int pageCount, int totalRows) {
+    }
+
+    private final Mode mode;
+    private final int parameter;
+
+    // parameter is N for TOP/BOTTOM and the threshold for BELOW
+    public ResultQuery(Mode mode, int parameter) {
+        this.mode = mode;
+        this.parameter = parameter;
+    }
+
+    public ResultPage page(Course course, Quiz quiz, int page, int pageSize) {
+        ScoreIndex index = quiz.getScoreIndex();
+        List<Student> enrolled = course.getEnrolledStudents();
+
+        Stream<ResultRow> rows;
+        int total;
+        switch (mode) {
+            case TOP -> {
+                total = Math.min(parameter, index.size());
+                rows = graded(index.highestFirst()).limit(total);
+            }
+            case BOTTOM -> {
+                total = Math.min(parameter, index.size());
+                rows = graded(index.lowestFirst()).limit(total);
+            }
+            case BELOW -> {
+                total = (int) graded(index.below(parameter)).count();
+                rows = graded(index.below(parameter));
+            }
+            case ABSENT -> {
+                List<ResultRow> absent = enrolled.stream()
+                        .filter(student -> index.scoreOf(student.getUserId()) == null
+                                && quiz.getAttempt(student.getUserId()) == null)
+                        .map(student -> new ResultRow(student, Status.ABSENT, 0))
+                        .toList();
+                total = absent.size();
+                rows = absent.stream();
+            }
+            case ALL_BY_SCORE -> {
+                // Graded in score order, then everyone still without a grade
+                total = enrolled.size();
+                rows = Stream.concat(graded(index.highestFirst()),
+                        enrolled.stream()
+                                .filter(student -> index.scoreOf(student.getUserId()) == null)
+                                .map(student -> rowFor(student, quiz, index)));
+            }
+            default -> { // ALL_BY_NAME
+                total = enrolled.size();
+                rows = enrolled.stream()
+                        .sorted(Comparator.comparing(Student::getName, String.CASE_INSENSITIVE_ORDER))
+                        .map(student -> rowFor(student, quiz, index));
+            }
+        }
+
+        int pageCount = Math.max(1, (total + pageSize - 1) / pageSize);
+        int current = Math.max(0, Math.min(page, pageCount - 1));
+        List<ResultRow> pageRows = rows.skip((long) current * pageSize).limit(pageSize).toList();
+        return new ResultPage(pageRows, current, pageCount, total);
+    }
+
+    private static Stream<ResultRow> graded(Iterator<ScoreIndex.Entry> entries) {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(entries, Spliterator.ORDERED), false)
+                .map(entry -> new ResultRow(entry.student(), Status.GRADED, entry.score()));
+    }
+
+    private static ResultRow rowFor(Student student, Quiz quiz, ScoreIndex index) {
+        Integer score = index.scoreOf(student.getUserId());
+        if (score != null) return new ResultRow(student, Status.GRADED, score);
+        if (quiz.getAttempt(student.getUserId()) != null) return new ResultRow(student, Status.IN_PROGRESS, 0);
+        return new ResultRow(student, Status.ABSENT, 0);
+    }
+}
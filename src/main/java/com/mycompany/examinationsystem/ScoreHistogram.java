@@ -0,0 +1,66 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+
+// Count of values per integer bin. Exact for integer quiz scores; percentages are
+// binned at a fixed resolution. Updates are O(1), so ranks stay cheap to keep
+// current after every submission.
+final class ScoreHistogram {
+    private int[] counts;
+    private long total;
+
+    public ScoreHistogram() {
+        this.counts = new int[16];
+    }
+
+    public synchronized void add(int bin) {
+        if (bin < 0) bin = 0;
+        if (bin >= counts.length) {
+            counts = Arrays.copyOf(counts, Math.max(bin + 1, counts.length * 2));
+        }
+        counts[bin]++;
+        total++;
+    }
+
+    public synchronized void remove(int bin) {
+        if (bin < 0) bin = 0;
+        if (bin < counts.length && counts[bin] > 0) {
+            counts[bin]--;
+            total--;
+        }
+    }
+
+    public synchronized long count() {
+        return total;
+    }
+
+    // Percentile rank of every bin: share of values below it plus half of those equal
+    public synchronized double[] percentileRanks() {
+        double[] ranks = new double[counts.length];
+        long below = 0;
+        for (int bin = 0; bin < counts.length; bin++) {
+            ranks[bin] = total == 0 ? 0 : (below + counts[bin] / 2.0) * 100.0 / total;
+            below += counts[bin];
+        }
+        return ranks;
+    }
+
+    // Smallest bin at or below which the given percentage of values fall
+    public synchronized int valueAtPercentile(double percentile) {
+        if (total == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int bin = 0; bin < counts.length; bin++) {
+            cumulative += counts[bin];
+            if (cumulative >= target) return bin;
+        }
+        return counts.length - 1;
+    }
+
+    public synchronized int maxValue() {
+        for (int bin = counts.length - 1; bin >= 0; bin--) {
+            if (counts[bin] > 0) return bin;
+        }
+        return 0;
+    }
+}
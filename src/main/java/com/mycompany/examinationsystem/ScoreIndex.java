@@ -0,0 +1,65 @@
+package com.mycompany.examinationsystem;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Graded scores of one quiz kept in score order. It is updated as attempts are
+// graded, so top-N, bottom-N and below-threshold queries walk only the entries
+// they return instead of sorting the class.
+final class ScoreIndex {
+    // Highest score first, ties broken by student id
+    private static final Comparator<Entry> ORDER = Comparator.comparingInt(Entry::score).reversed()
+            .thenComparing(Entry::studentId);
+
+    record Entry(String studentId, Student student, int score) {
+    }
+
+    private final ConcurrentSkipListSet<Entry> entries;
+    private final Map<String, Entry> byStudent;
+    private final ScoreHistogram histogram;
+
+    public ScoreIndex() {
+        this.entries = new ConcurrentSkipListSet<>(ORDER);
+        this.byStudent = new ConcurrentHashMap<>();
+        this.histogram = new ScoreHistogram();
+    }
+
+    public void update(Student student, int score) {
+        Entry entry = new Entry(student.getUserId(), student, score);
+        Entry previous = byStudent.put(entry.studentId(), entry);
+        if (previous != null) {
+            entries.remove(previous);
+            histogram.remove(previous.score());
+        }
+        entries.add(entry);
+        histogram.add(score);
+    }
+
+    // Score distribution, for percentile ranks and quantiles
+    public ScoreHistogram getHistogram() {
+        return histogram;
+    }
+
+    public int size() {
+        return byStudent.size();
+    }
+
+    // Graded score of the student, or null if not graded
+    public Integer scoreOf(String studentId) {
+        Entry entry = byStudent.get(studentId);
+        return entry != null ? entry.score() : null;
+    }
+
+    public Iterator<Entry> highestFirst() {
+        return entries.iterator();
+    }
+
+    public Iterator<Entry> lowestFirst() {
+        return entries.descendingIterator();
+    }
+
+    // Entries scoring strictly below the threshold, highest first
+    public Iterator<Entry> below(int threshold) {
+        return entries.tailSet(new Entry("", null, threshold - 1), true).iterator();
+    }
+}
@@ -0,0 +1,245 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Routes course and question bank requests to the shard that owns the course id
+class ShardRouter {
+    private final CourseShard[] shards;
+    private final StudentResultsIndex resultsIndex;
+    private final List<File> retiredFiles; // loaded files of shards beyond the shard count
+
+    public ShardRouter(int shardCount) {
+        if (shardCount < 1) {
+            throw new IllegalArgumentException("Shard count must be at least 1");
+        }
+        this.shards = new CourseShard[shardCount];
+        for (int i = 0; i < shardCount; i++) {
+            shards[i] = new CourseShard(i);
+        }
+        this.resultsIndex = new StudentResultsIndex();
+        this.retiredFiles = new ArrayList<>();
+    }
+
+    public int getShardCount() { return shards.length; }
+
+    public CourseShard shardFor(String courseId) {
+        return shards[Math.floorMod(courseId.hashCode(), shards.length)];
+    }
+
+    public Course getCourse(String courseId) {
+        return shardFor(courseId).getCourses().get(courseId);
+    }
+
+    public Collection<Course> getCourses() {
+        List<Course> all = new ArrayList<>();
+        for (CourseShard shard : shards) {
+            all.addAll(shard.getCourses().values());
+        }
+        return all;
+    }
+
+    public void addCourse(Course course) {
+        shardFor(course.getCourseId()).getCourses().put(course.getCourseId(), course);
+        course.attachResults(resultsIndex);
+    }
+    
+    // Graded results per student across every shard
+    public StudentResultsIndex getResultsIndex() {
+        return resultsIndex;
+    }
+
+    public QuestionBank getQuestionBank(String courseId) {
+        return shardFor(courseId).getQuestionBanks().get(courseId);
+    }
+
+    public void putQuestionBank(String courseId, List<Question> questions) {
+        putQuestionBank(courseId, new QuestionBank(questions));
+    }
+
+    public void putQuestionBank(String courseId, QuestionBank bank) {
+        CourseShard shard = shardFor(courseId);
+        shard.getQuestionBanks().put(courseId, bank);
+        shard.invalidateIndexes(courseId);
+    }
+    
+    public QuestionBank getOrCreateQuestionBank(String courseId) {
+        return shardFor(courseId).getQuestionBanks().computeIfAbsent(courseId, id -> new QuestionBank());
+    }
+    
+    public BankIntegrityIndex getIntegrityIndex(String courseId) {
+        return shardFor(courseId).getIntegrityIndex(courseId);
+    }
+    
+    public QuestionSearchIndex getSearchIndex(String courseId) {
+        return shardFor(courseId).getSearchIndex(courseId);
+    }
+    
+    // Adds a question to the course's bank and keeps the bank's indexes current
+    public void addQuestion(String courseId, Question question) {
+        getOrCreateQuestionBank(courseId).add(question);
+        getIntegrityIndex(courseId).add(question);
+        getSearchIndex(courseId).add(question);
+    }
+    
+    // Adds questions to the course's bank as one new version and keeps the bank's indexes current
+    public void addQuestions(String courseId, List<Question> questions) {
+        getOrCreateQuestionBank(courseId).addAll(questions);
+        BankIntegrityIndex integrityIndex = getIntegrityIndex(courseId);
+        QuestionSearchIndex searchIndex = getSearchIndex(courseId);
+        for (Question question : questions) {
+            integrityIndex.add(question);
+            searchIndex.add(question);
+        }
+    }
+    
+    // Publishes an edited question version; quizzes keep the version they were created with
+    public boolean replaceQuestion(String courseId, Question question) {
+        QuestionBank bank = getQuestionBank(courseId);
+        if (bank == null || !bank.replace(question)) return false;
+        getIntegrityIndex(courseId).add(question);
+        getSearchIndex(courseId).add(question);
+        return true;
+    }
+    
+    public void removeQuestion(String courseId, String questionId) {
+        QuestionBank bank = getQuestionBank(courseId);
+        if (bank == null) return;
+        bank.remove(questionId);
+        getIntegrityIndex(courseId).remove(questionId);
+        getSearchIndex(courseId).remove(questionId);
+    }
+
+    // Archives closed quizzes in every shard in parallel; returns the number archived
+    public int archiveClosedQuizzes(AttemptCheckpointer checkpointer) {
+        List<Future<Integer>> results = new ArrayList<>();
+        for (CourseShard shard : shards) {
+            results.add(shard.archiveClosedQuizzes(checkpointer));
+        }
+        int archived = 0;
+        for (Future<Integer> result : results) {
+            archived += await(result, 0);
+        }
+        return archived;
+    }
+
+    // Saves every shard to its own file in parallel; returns the number of shards that failed.
+    // Files of shards beyond the shard count are deleted once their courses are saved.
+    public int saveAll() {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (CourseShard shard : shards) {
+            results.add(shard.save());
+        }
+        int failed = 0;
+        for (Future<Boolean> result : results) {
+            if (!await(result, false)) failed++;
+        }
+        if (failed == 0) {
+            retiredFiles.removeIf(file -> file.delete() || !file.exists());
+        }
+        return failed;
+    }
+
+    // Drops all courses and question banks, e.g. the sample data before saved data is loaded
+    public void clear() {
+        for (CourseShard shard : shards) {
+            shard.clear();
+        }
+        QuizArchive.clearCache();
+        resultsIndex.clear();
+    }
+
+    // Loads every shard file in parallel; returns the number of shards restored.
+    // Throws if any shard file exists but cannot be read.
+    public int loadAll() throws IOException {
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (CourseShard shard : shards) {
+            results.add(shard.load());
+        }
+        int loaded = 0;
+        List<String> failures = new ArrayList<>();
+        for (int i = 0; i < shards.length; i++) {
+            try {
+                if (results.get(i).get()) loaded++;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                failures.add(shards[i].getDataFile() + " (interrupted)");
+            } catch (ExecutionException e) {
+                failures.add(shards[i].getDataFile() + " (" + e.getCause() + ")");
+            }
+        }
+        
+        // A run with more shards left files this router has no shard for; their
+        // courses go to the shards that own them now
+        retiredFiles.clear();
+        for (File file : retiredShardFiles()) {
+            try {
+                CourseShard.Contents contents = CourseShard.read(file);
+                contents.courses().forEach((id, course) -> shardFor(id).getCourses().putIfAbsent(id, course));
+                contents.questionBanks().forEach((id, bank) -> {
+                    if (getQuestionBank(id) == null) putQuestionBank(id, bank);
+                });
+                retiredFiles.add(file);
+            } catch (IOException | ClassNotFoundException e) {
+                failures.add(file.getName() + " (" + e + ")");
+            }
+        }
+        if (!failures.isEmpty()) {
+            throw new IOException("Could not load " + String.join(", ", failures));
+        }
+        rebalance();
+        
+        // Loaded courses replace the previous ones, so their results are indexed afresh
+        QuizArchive.clearCache();
+        resultsIndex.clear();
+        for (Course course : getCourses()) {
+            course.attachResults(resultsIndex);
+        }
+        return loaded;
+    }
+
+    private List<File> retiredShardFiles() {
+        List<File> retired = new ArrayList<>();
+        File[] files = new File(".").listFiles((dir, name) -> name.matches("shard_\\d{1,9}\\.ser"));
+        if (files == null) return retired;
+        for (File file : files) {
+            String name = file.getName();
+            int shardId = Integer.parseInt(name.substring("shard_".length(), name.length() - ".ser".length()));
+            if (shardId >= shards.length) retired.add(file);
+        }
+        retired.sort(Comparator.comparing(File::getName));
+        return retired;
+    }
+
+    // Moves entries to their owning shard, e.g. after the shard count was changed
+    private void rebalance() {
+        for (CourseShard shard : shards) {
+            for (Course course : new ArrayList<>(shard.getCourses().values())) {
+                if (shardFor(course.getCourseId()) != shard) {
+                    shard.getCourses().remove(course.getCourseId());
+                    addCourse(course);
+                }
+            }
+            for (Map.Entry<String, QuestionBank> bank : new ArrayList<>(shard.getQuestionBanks().entrySet())) {
+                if (shardFor(bank.getKey()) != shard) {
+                    shard.getQuestionBanks().remove(bank.getKey());
+                    shard.invalidateIndexes(bank.getKey());
+                    putQuestionBank(bank.getKey(), bank.getValue());
+                }
+            }
+        }
+    }
+
+    private <T> T await(Future<T> result, T failed) {
+        try {
+            return result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return failed;
+        } catch (ExecutionException e) {
+            Terminal.get().println("Shard task failed: " + e.getCause());
+            return failed;
+        }
+    }
+}
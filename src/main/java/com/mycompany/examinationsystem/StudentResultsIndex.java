@@ -0,0 +1,68 @@
+package com.mycompany.examinationsystem;
+
+import java.time.ZonedDateTime;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Graded results of every student across all courses. Quizzes report each
+// attempt as it is graded, so a student's results and transcripts are read
+// from here instead of asking every quiz of every course for an attempt. It is
+// never persisted: courses are indexed again when they are added or loaded.
+final class StudentResultsIndex {
+    // Oldest quiz first
+    private static final Comparator<Result> ORDER = Comparator.comparing(Result::startTime)
+            .thenComparing(Result::courseId).thenComparing(Result::quizId);
+
+    record Result(String courseId, String quizId, ZonedDateTime startTime, int score, int maxScore) {
+        public double percentage() {
+            return maxScore > 0 ? score * 100.0 / maxScore : 0;
+        }
+    }
+
+    private final Map<String, Map<String, Result>> byStudent; // studentId -> "courseId\tquizId" -> result
+
+    public StudentResultsIndex() {
+        this.byStudent = new ConcurrentHashMap<>();
+    }
+
+    // Adds or replaces the result of a graded attempt
+    public void record(QuizAttempt attempt) {
+        record(attempt.getQuiz(), attempt.getStudent().getUserId(), attempt.getScore());
+    }
+
+    public void record(Quiz quiz, String studentId, int score) {
+        Result result = new Result(quiz.getCourseId(), quiz.getQuizId(), quiz.getStartTime(),
+                score, quiz.getMaxScore());
+        byStudent.computeIfAbsent(studentId, id -> new ConcurrentHashMap<>())
+                .put(quiz.getCourseId() + "\t" + quiz.getQuizId(), result);
+    }
+
+    public void clear() {
+        byStudent.clear();
+    }
+
+    public int getStudentCount() {
+        return byStudent.size();
+    }
+
+    // Student ids with at least one graded attempt, in id order
+    public List<String> getStudentIds() {
+        List<String> ids = new ArrayList<>(byStudent.keySet());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    public List<Result> resultsFor(String studentId) {
+        Map<String, Result> results = byStudent.get(studentId);
+        if (results == null) return List.of();
+        List<Result> sorted = new ArrayList<>(results.values());
+        sorted.sort(ORDER);
+        return sorted;
+    }
+
+    public List<Result> resultsFor(String studentId, String courseId) {
+        List<Result> results = new ArrayList<>(resultsFor(studentId));
+        results.removeIf(result -> !result.courseId().equals(courseId));
+        return results;
+    }
+}
@@ -0,0 +1,106 @@
+package com.mycompany.examinationsystem;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Single shared console for the whole front end. Input comes from one buffered
+// reader (stdin or a replay script) so no prompt can swallow another's input, and
+// output is buffered and only flushed when input is requested or on exit.
+final class Terminal {
+    private static final int OUTPUT_BUFFER = 64 * 1024;
+
+    private static Terminal current = new Terminal(
+            new InputStreamReader(System.in, StandardCharsets.UTF_8),
+            new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8),
+            false);
+
+    private final BufferedReader in;
+    private final PrintWriter out;
+    private final boolean echoInput;
+
+    private Terminal(Reader in, Writer out, boolean echoInput) {
+        this.in = new BufferedReader(in);
+        this.out = new PrintWriter(new BufferedWriter(out, OUTPUT_BUFFER), false);
+        this.echoInput = echoInput;
+    }
+
+    static Terminal get() {
+        return current;
+    }
+
+    // Drives the front end from a script of input lines. Output goes to the given
+    // transcript file (for regression comparison) or to stdout when it is null.
+    static void useReplay(Path script, Path transcript) throws IOException {
+        Reader in = Files.newBufferedReader(script, StandardCharsets.UTF_8);
+        Writer out = transcript != null
+                ? Files.newBufferedWriter(transcript, StandardCharsets.UTF_8)
+                : new OutputStreamWriter(new FileOutputStream(FileDescriptor.out), StandardCharsets.UTF_8);
+        current.flush();
+        current = new Terminal(in, out, true);
+    }
+
+    public synchronized void println(String line) {
+        out.println(line);
+    }
+
+    public synchronized void println() {
+        out.println();
+    }
+
+    public synchronized void print(String text) {
+        out.print(text);
+    }
+
+    public synchronized void printf(String format, Object... args) {
+        out.printf(format, args);
+    }
+
+    // Reads the next input line; throws NoSuchElementException at end of input
+    public synchronized String readLine() {
+        out.flush();
+        try {
+            String line = in.readLine();
+            if (line == null) {
+                throw new NoSuchElementException("No more input");
+            }
+            if (echoInput) {
+                out.println(line);
+            }
+            return line;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    // Reads a whole line as a number; throws InputMismatchException if it is not one
+    public int readInt() {
+        String line = readLine().trim();
+        try {
+            return Integer.parseInt(line);
+        } catch (NumberFormatException e) {
+            throw new InputMismatchException("Not a number: " + line);
+        }
+    }
+
+    // Reads a menu choice, returning -1 for anything that is not a number
+    public int readChoice() {
+        try {
+            return readInt();
+        } catch (InputMismatchException e) {
+            return -1;
+        }
+    }
+
+    public boolean readBoolean() {
+        String line = readLine().trim();
+        if (line.equalsIgnoreCase("true")) return true;
+        if (line.equalsIgnoreCase("false")) return false;
+        throw new InputMismatchException("Not true/false: " + line);
+    }
+
+    public synchronized void flush() {
+        out.flush();
+    }
+}
@@ -0,0 +1,69 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+
+class AdmissionControlTest {
+    @Test
+    void limitsLoginAttemptsPerUser() {
+        AdmissionControl admission = new AdmissionControl(4, 10, 100);
+        for (int i = 0; i < 5; i++) {
+            assertTrue(admission.admitLogin("s1"));
+        }
+        assertFalse(admission.admitLogin("s1"));
+        // Another user has a bucket of their own
+        assertTrue(admission.admitLogin("s2"));
+        assertEquals(1, admission.getMetrics().loginsRejected());
+    }
+
+    @Test
+    void limitsQuizStartsPerUser() {
+        AdmissionControl admission = new AdmissionControl(4, 10, 100);
+        for (int i = 0; i < 3; i++) {
+            assertEquals(AdmissionControl.Decision.ADMITTED, admission.admitStart("s1"));
+            admission.finishStart();
+        }
+        assertEquals(AdmissionControl.Decision.RATE_LIMITED, admission.admitStart("s1"));
+
+        AdmissionControl.Metrics metrics = admission.getMetrics();
+        assertEquals(3, metrics.admitted());
+        assertEquals(1, metrics.rateLimited());
+        assertEquals(1, metrics.rejected());
+    }
+
+    @Test
+    void turnsAwayStartsBeyondTheQueue() throws Exception {
+        AdmissionControl admission = new AdmissionControl(1, 1, 5000);
+        assertEquals(AdmissionControl.Decision.ADMITTED, admission.admitStart("s1"));
+
+        CompletableFuture<AdmissionControl.Decision> queued =
+                CompletableFuture.supplyAsync(() -> admission.admitStart("s2"));
+        while (admission.getMetrics().queueDepth() == 0) {
+            Thread.sleep(1);
+        }
+        assertEquals(AdmissionControl.Decision.QUEUE_FULL, admission.admitStart("s3"));
+
+        admission.finishStart();
+        assertEquals(AdmissionControl.Decision.ADMITTED, queued.get(5, TimeUnit.SECONDS));
+        admission.finishStart();
+        assertEquals(1, admission.getMetrics().queueFull());
+    }
+
+    @Test
+    void queuedStartsGiveUpAfterTheWait() {
+        AdmissionControl admission = new AdmissionControl(1, 1, 50);
+        assertEquals(AdmissionControl.Decision.ADMITTED, admission.admitStart("s1"));
+
+        assertEquals(AdmissionControl.Decision.TIMED_OUT, admission.admitStart("s2"));
+
+        AdmissionControl.Metrics metrics = admission.getMetrics();
+        assertEquals(1, metrics.timedOut());
+        assertEquals(1, metrics.maxQueueDepth());
+        assertEquals(0, metrics.queueDepth());
+        assertTrue(metrics.maxWaitMicros() >= 40_000);
+        admission.finishStart();
+    }
+}
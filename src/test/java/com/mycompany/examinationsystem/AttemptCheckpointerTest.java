@@ -0,0 +1,110 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class AttemptCheckpointerTest {
+    @TempDir
+    Path dir;
+
+    private AttemptCheckpointer recovered(Path log) {
+        AttemptCheckpointer checkpointer = new AttemptCheckpointer(log.toString());
+        checkpointer.recover();
+        return checkpointer;
+    }
+
+    @Test
+    void recoversUnsubmittedAttempts() {
+        Path log = dir.resolve("checkpoints.log");
+        AttemptCheckpointer writer = new AttemptCheckpointer(log.toString());
+        writer.started("CS-101", "quiz1", "s1");
+        writer.answered("CS-101", "quiz1", "s1", 1000, "q1", "1");
+        writer.answered("CS-101", "quiz1", "s1", 4000, "q2", "tab\there\nand a new line");
+        writer.started("CS-101", "quiz1", "s2");
+        writer.completed("CS-101", "quiz1", "s2");
+        writer.close();
+
+        AttemptCheckpointer reader = recovered(log);
+        try {
+            assertEquals(1, reader.getRecoveredCount());
+            AttemptCheckpointer.Checkpoint checkpoint = reader.getCheckpoint("CS-101", "quiz1", "s1");
+            assertNotNull(checkpoint);
+            assertEquals(4000, checkpoint.elapsedMillis());
+            assertEquals(Map.of("q1", "1", "q2", "tab\there\nand a new line"), checkpoint.answers());
+            assertNull(reader.getCheckpoint("CS-101", "quiz1", "s2"));
+            assertEquals(List.of(checkpoint), reader.getCheckpoints("CS-101", "quiz1"));
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void skipsTornAndUnknownRecords() throws IOException {
+        Path log = dir.resolve("checkpoints.log");
+        Files.writeString(log, String.join("\n",
+                "S\tCS-101\tquiz1\ts1",
+                "A\tCS-101\tquiz1\ts1\tnot-a-number\tq1\t1",
+                "A\tCS-101\tquiz1\ts9\t100\tq1\t1",
+                "X\tCS-101\tquiz1\ts1",
+                "A\tCS-101\tqu"), StandardCharsets.UTF_8);
+
+        AttemptCheckpointer reader = recovered(log);
+        try {
+            assertEquals(1, reader.getRecoveredCount());
+            AttemptCheckpointer.Checkpoint checkpoint = reader.getCheckpoint("CS-101", "quiz1", "s1");
+            assertEquals(0, checkpoint.elapsedMillis());
+            assertEquals(Map.of(), checkpoint.answers());
+        } finally {
+            reader.close();
+        }
+    }
+
+    @Test
+    void compactsTheLogOnRecovery() throws IOException {
+        Path log = dir.resolve("checkpoints.log");
+        AttemptCheckpointer writer = new AttemptCheckpointer(log.toString());
+        for (int i = 0; i < 100; i++) {
+            writer.started("CS-101", "quiz1", "s" + i);
+            writer.completed("CS-101", "quiz1", "s" + i);
+        }
+        writer.started("CS-101", "quiz1", "s1");
+        writer.answered("CS-101", "quiz1", "s1", 500, "q1", "2");
+        writer.close();
+
+        recovered(log).close();
+
+        assertEquals(List.of("S\tCS-101\tquiz1\ts1", "A\tCS-101\tquiz1\ts1\t500\tq1\t2"), Files.readAllLines(log));
+    }
+
+    @Test
+    void purgedCheckpointsStayGone() {
+        Path log = dir.resolve("checkpoints.log");
+        AttemptCheckpointer writer = new AttemptCheckpointer(log.toString());
+        writer.started("CS-101", "quiz1", "s1");
+        writer.started("CS-101", "deleted", "s1");
+        writer.started("GONE", "quiz1", "s2");
+        writer.close();
+
+        AttemptCheckpointer reader = recovered(log);
+        int purged = reader.purge(checkpoint -> checkpoint.quizId().equals("quiz1")
+                && checkpoint.courseId().equals("CS-101"));
+        reader.close();
+        assertEquals(2, purged);
+        assertEquals(1, reader.getRecoveredCount());
+
+        AttemptCheckpointer again = recovered(log);
+        try {
+            assertEquals(1, again.getRecoveredCount());
+            assertNotNull(again.getCheckpoint("CS-101", "quiz1", "s1"));
+        } finally {
+            again.close();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class BankIntegrityIndexTest {
+    private static final String INHERIT =
+            "Which keyword is used to inherit a class in Java when declaring a subclass of another class";
+
+    private static Question subjective(String questionId, String text) {
+        return new SubjectiveQuestion(questionId, "Inheritance", text, 2, "");
+    }
+
+    @Test
+    void findsExactCopiesAndReusedIds() {
+        BankIntegrityIndex index = BankIntegrityIndex.build(List.of(subjective("q1", INHERIT)));
+
+        BankIntegrityIndex.CheckResult copy = index.check(subjective("q2", INHERIT.toUpperCase() + "  "));
+        assertEquals("q1", copy.sameTextAs());
+        assertFalse(copy.duplicateId());
+
+        assertTrue(index.check(subjective("q1", "Something else entirely")).duplicateId());
+    }
+
+    @Test
+    void findsNearCopiesButNotUnrelatedQuestions() {
+        BankIntegrityIndex index = BankIntegrityIndex.build(List.of(subjective("q1", INHERIT)));
+
+        BankIntegrityIndex.CheckResult near = index.check(subjective("q2", INHERIT + " in a program"));
+        assertNull(near.sameTextAs());
+        assertEquals(1, near.nearDuplicates().size());
+        assertEquals("q1", near.nearDuplicates().get(0).questionId());
+        assertTrue(near.nearDuplicates().get(0).similarity() >= BankIntegrityIndex.NEAR_DUPLICATE_SIMILARITY);
+
+        assertTrue(index.check(subjective("q3", "Explain the time complexity of merge sort")).isClean());
+    }
+
+    @Test
+    void removedQuestionsAreNoLongerMatched() {
+        BankIntegrityIndex index = BankIntegrityIndex.build(List.of(subjective("q1", INHERIT)));
+        index.remove("q1");
+
+        assertFalse(index.containsId("q1"));
+        assertTrue(index.check(subjective("q2", INHERIT)).isClean());
+    }
+
+    @Test
+    void groupsOnlyCopiesOfTheKeptQuestion() {
+        // b is close to a and c is close to b, but c is not close to a
+        String b = INHERIT + " in a program";
+        String c = b + " written today";
+        BankIntegrityIndex index = BankIntegrityIndex.build(List.of(
+                subjective("a", INHERIT), subjective("b", b), subjective("c", c),
+                subjective("d", INHERIT), subjective("x", "Explain the time complexity of merge sort")));
+
+        List<BankIntegrityIndex.DuplicateGroup> groups = index.findDuplicateGroups();
+
+        assertEquals(1, groups.size());
+        BankIntegrityIndex.DuplicateGroup group = groups.get(0);
+        assertEquals("a", group.original());
+        List<String> copies = group.copies().stream().map(BankIntegrityIndex.Match::questionId).toList();
+        assertEquals(List.of("b", "d"), copies);
+        assertEquals(1.0, group.copies().get(1).similarity());
+    }
+}
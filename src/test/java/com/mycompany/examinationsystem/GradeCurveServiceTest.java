@@ -0,0 +1,99 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+
+class GradeCurveServiceTest {
+    private final Teacher teacher = new Teacher("t1", "pass", "Teacher");
+
+    @Test
+    void absoluteCurveUsesFixedCutoffs() {
+        CurvePolicy curve = new AbsoluteCurve();
+        assertEquals("A", curve.gradeFor(90, 0, 100));
+        assertEquals("B", curve.gradeFor(89.9, 100, 100));
+        assertEquals("D", curve.gradeFor(60, 50, 100));
+        assertEquals("F", curve.gradeFor(59, 50, 100));
+    }
+
+    @Test
+    void topScaledCurveCountsTheBestScoreAsFullMarks() {
+        CurvePolicy curve = new TopScaledCurve();
+        assertEquals("A", curve.gradeFor(50, 100, 50));
+        assertEquals("B", curve.gradeFor(40, 50, 50));
+        // Nobody scored: percentages are used as they are
+        assertEquals("F", curve.gradeFor(0, 50, 0));
+    }
+
+    @Test
+    void percentileCurveGradesByStanding() {
+        CurvePolicy curve = new PercentileCurve();
+        assertEquals("A", curve.gradeFor(10, 95, 100));
+        assertEquals("C", curve.gradeFor(99, 50, 100));
+        assertEquals("F", curve.gradeFor(99, 5, 100));
+    }
+
+    @Test
+    void ranksAQuizByScore() {
+        Quiz quiz = new Quiz("quiz1", "CS-101", teacher, ZonedDateTime.now().minusDays(1), Duration.ofMinutes(30), 1,
+                List.of(new TrueFalseQuestion("q1", "Basics", "First.", 5, true),
+                        new TrueFalseQuestion("q2", "Basics", "Second.", 5, true)));
+        grade(quiz, new Student("s1", "pass", "Top"), "1", "1");
+        grade(quiz, new Student("s2", "pass", "Middle"), "1", "2");
+        grade(quiz, new Student("s3", "pass", "Bottom"), "2", "2");
+
+        GradeCurveService.Report report = new GradeCurveService().forQuiz(quiz, new PercentileCurve());
+
+        List<GradeCurveService.Standing> standings = report.standings();
+        assertEquals(List.of("s1", "s2", "s3"),
+                standings.stream().map(standing -> standing.student().getUserId()).toList());
+        assertEquals(List.of(100.0, 50.0, 0.0), standings.stream().map(GradeCurveService.Standing::percentage).toList());
+        // Mid-rank percentiles: half of each student's own bin counts as below them
+        assertEquals(250.0 / 3, standings.get(0).percentileRank(), 1e-9);
+        assertEquals(50.0, standings.get(1).percentileRank(), 1e-9);
+        assertEquals(50.0 / 3, standings.get(2).percentileRank(), 1e-9);
+        assertEquals(Map.of("B", 1, "C", 1, "D", 1), report.distribution());
+        assertEquals(50.0, report.median());
+    }
+
+    @Test
+    void combinesQuizzesForACourse() {
+        Course course = new Course("CS-101", "Programming", teacher);
+        Student ali = new Student("s1", "pass", "Ali");
+        Student sara = new Student("s2", "pass", "Sara");
+        course.enrollStudent(ali);
+        course.enrollStudent(sara);
+        Quiz first = new Quiz("quiz1", "CS-101", teacher, ZonedDateTime.now().minusDays(2), Duration.ofMinutes(30), 1,
+                List.of(new TrueFalseQuestion("q1", "Basics", "First.", 10, true)));
+        Quiz second = new Quiz("quiz2", "CS-101", teacher, ZonedDateTime.now().minusDays(1), Duration.ofMinutes(30), 1,
+                List.of(new TrueFalseQuestion("q2", "Basics", "Second.", 30, true)));
+        course.addQuiz(first);
+        course.addQuiz(second);
+        grade(first, ali, "1");
+        grade(second, ali, "2");
+        grade(first, sara, "2");
+        grade(second, sara, "1");
+
+        GradeCurveService.Report report = new GradeCurveService().forCourse(course, new AbsoluteCurve());
+
+        List<GradeCurveService.Standing> standings = report.standings();
+        assertEquals("s2", standings.get(0).student().getUserId());
+        assertEquals(75.0, standings.get(0).percentage(), 1e-9);
+        assertEquals("s1", standings.get(1).student().getUserId());
+        assertEquals(25.0, standings.get(1).percentage(), 1e-9);
+        assertEquals(Map.of("C", 1, "F", 1), report.distribution());
+    }
+
+    private static void grade(Quiz quiz, Student student, String... answers) {
+        QuizAttempt attempt = new QuizAttempt(student, quiz);
+        List<Question> questions = quiz.getQuestions();
+        for (int i = 0; i < answers.length; i++) {
+            attempt.recordAnswer(questions.get(i).getQuestionId(), answers[i]);
+        }
+        quiz.getAttempts().put(student.getUserId(), attempt);
+        attempt.gradeQuiz();
+    }
+}
@@ -0,0 +1,67 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+
+class QuestionSearchIndexTest {
+    private QuestionSearchIndex index;
+
+    @BeforeEach
+    void buildIndex() {
+        index = QuestionSearchIndex.build(List.of(
+                new MCQQuestion("q1", "Inheritance", "Which keyword declares a subclass?", 2,
+                        List.of("extends", "implements"), 0),
+                new TrueFalseQuestion("q2", "Polymorphism", "Overloading is resolved at compile time.", 2, true),
+                new SubjectiveQuestion("q3", "Interfaces", "Explain how inheritance differs from composition.", 5, ""),
+                new SubjectiveQuestion("q4", "Collections", "When would you pick a LinkedList?", 3, "")));
+    }
+
+    private static List<String> ids(List<Question> questions) {
+        return questions.stream().map(Question::getQuestionId).toList();
+    }
+
+    @Test
+    void tokenizesOnLettersAndDigits() {
+        assertEquals(List.of("what", "s", "o", "1", "lookup"), QuestionSearchIndex.tokenize("What's O(1) lookup?"));
+        assertEquals(List.of(), QuestionSearchIndex.tokenize(null));
+    }
+
+    @Test
+    void ranksTopicHitsAboveTextHits() {
+        assertEquals(List.of("q1", "q3"), ids(index.search("inheritance", 10)));
+    }
+
+    @Test
+    void requiresEveryTerm() {
+        assertEquals(List.of("q3"), ids(index.search("inheritance composition", 10)));
+        assertEquals(List.of(), ids(index.search("inheritance overloading", 10)));
+    }
+
+    @Test
+    void matchesTheLastTermAsAPrefix() {
+        assertEquals(List.of("q2"), ids(index.search("compile ti", 10)));
+        assertEquals(List.of("q4"), ids(index.search("linked", 10)));
+        assertEquals(List.of("q1"), ids(index.search("implem", 10)));
+    }
+
+    @Test
+    void honoursTheLimit() {
+        assertEquals(1, index.search("inheritance", 1).size());
+        assertEquals(List.of(), index.search("inheritance", 0));
+        assertEquals(List.of(), index.search("  ", 10));
+    }
+
+    @Test
+    void reindexesReplacedAndRemovedQuestions() {
+        index.add(new SubjectiveQuestion("q4", "Collections", "When would you pick an ArrayDeque?", 3, ""));
+        assertEquals(List.of(), index.search("linkedlist", 10));
+        assertEquals(List.of("q4"), ids(index.search("arraydeque", 10)));
+
+        index.remove("q4");
+        assertEquals(3, index.size());
+        assertEquals(List.of(), index.search("arraydeque", 10));
+    }
+}
@@ -0,0 +1,91 @@
+package com.mycompany.examinationsystem;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.file.*;
+import java.time.*;
+import java.util.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.io.TempDir;
+
+class QuizArchiveTest {
+    @TempDir
+    Path dir;
+
+    private final Teacher teacher = new Teacher("t1", "pass", "Teacher");
+    private final Student ali = new Student("s1", "pass", "Ali");
+    private final Student sara = new Student("s2", "pass", "Sara");
+
+    @AfterEach
+    void clearCache() {
+        QuizArchive.clearCache();
+    }
+
+    private Quiz quiz(String courseId, String quizId) {
+        return new Quiz(quizId, courseId, teacher, ZonedDateTime.now().minusDays(1), Duration.ofMinutes(30), 1,
+                List.of(new TrueFalseQuestion("q1", "Basics", "Java is statically typed.", 5, true),
+                        new MCQQuestion("q2", "Basics", "Pick the keyword.", 3,
+                                List.of("extends", "inherits"), 0)));
+    }
+
+    private QuizAttempt attempt(Quiz quiz, Student student, Map<String, String> answers) {
+        QuizAttempt attempt = new QuizAttempt(student, quiz);
+        answers.forEach(attempt::recordAnswer);
+        attempt.gradeQuiz();
+        return attempt;
+    }
+
+    @Test
+    void readsBackScoresAndAnswers() throws IOException {
+        Quiz quiz = quiz("CS-101", "q1");
+        // Longer than writeUTF's 64 KB limit, which format version 1 had
+        String essay = "x".repeat(70_000);
+        List<QuizAttempt> attempts = List.of(
+                attempt(quiz, ali, Map.of("q1", "1", "q2", "1")),
+                attempt(quiz, sara, Map.of("q2", essay)));
+        Path file = dir.resolve("archive.qza");
+
+        QuizArchive.write(quiz, attempts, file);
+
+        Map<String, Integer> scores = QuizArchive.readScores(file, "CS-101", "q1");
+        assertEquals(Map.of("s1", 8, "s2", 0), scores);
+
+        Map<String, Student> students = Map.of("s1", ali, "s2", sara);
+        QuizArchive.Archived archived = QuizArchive.load(file, "CS-101", "q1", students::get);
+        QuizSnapshot snapshot = archived.snapshot();
+        assertEquals(2, snapshot.size());
+        assertEquals(Map.of("q1", "1", "q2", "1"), snapshot.get("s1").answers());
+        assertEquals(Map.of("q2", essay), snapshot.get("s2").answers());
+        assertTrue(snapshot.get("s1").graded());
+        assertEquals(8, archived.scoreIndex().scoreOf("s1"));
+        assertEquals(0, archived.scoreIndex().scoreOf("s2"));
+    }
+
+    @Test
+    void refusesAnotherQuizsFile() throws IOException {
+        Quiz quiz = quiz("CS", "q1");
+        Path file = dir.resolve("archive.qza");
+        QuizArchive.write(quiz, List.of(attempt(quiz, ali, Map.of("q1", "1"))), file);
+
+        assertThrows(IOException.class, () -> QuizArchive.readScores(file, "CS", "q2"));
+        assertThrows(IOException.class, () -> QuizArchive.write(quiz("CS", "q2"), List.of(), file));
+    }
+
+    @Test
+    void idsThatUsedToCollideGetTheirOwnFiles() {
+        Path first = QuizArchive.fileFor(quiz("CS_101", "q1"));
+        Path second = QuizArchive.fileFor(quiz("CS", "101_q1"));
+        Path third = QuizArchive.fileFor(quiz("CS+101", "q1"));
+
+        assertEquals(3, Set.of(first, second, third).size());
+    }
+
+    @Test
+    void escapedIdsNeverContainTheSeparator() {
+        assertEquals("CS-101", QuizArchive.escape("CS-101"));
+        assertFalse(QuizArchive.escape("a__b").contains("__"));
+        assertNotEquals(QuizArchive.escape("a_b"), QuizArchive.escape("a+b"));
+    }
+}